@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Small time-based benchmark runner: each benchmark is warmed up, then
+ * measured over several fixed-length iterations and reported in ns/op.
+ * Every result is folded into a sink so the JIT cannot drop the work.
+ */
+public final class Bench {
+    private final List<String> names = new ArrayList<>();
+    private final List<LongSupplier> ops = new ArrayList<>();
+    private int warmupIterations = 3;
+    private int measureIterations = 5;
+    private long iterationNanos = 1_000_000_000L;
+    private String filter = "";
+    private long sink;
+
+    /** Parses --warmup n, --iterations n, --time ms and an optional name filter. */
+    public Bench(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--warmup": warmupIterations = Integer.parseInt(args[++i]); break;
+                case "--iterations": measureIterations = Integer.parseInt(args[++i]); break;
+                case "--time": iterationNanos = Long.parseLong(args[++i]) * 1_000_000L; break;
+                default: filter = args[i];
+            }
+        }
+    }
+
+    public void add(String name, LongSupplier op) {
+        if (name.contains(filter)) {
+            names.add(name);
+            ops.add(op);
+        }
+    }
+
+    public void run() {
+        System.out.printf("%-40s %14s %12s %14s%n", "Benchmark", "ns/op", "error", "ops/s");
+        for (int i = 0; i < names.size(); i++) {
+            LongSupplier op = ops.get(i);
+            for (int w = 0; w < warmupIterations; w++) {
+                measure(op);
+            }
+            double[] samples = new double[measureIterations];
+            double mean = 0;
+            for (int m = 0; m < measureIterations; m++) {
+                samples[m] = measure(op);
+                mean += samples[m];
+            }
+            mean /= measureIterations;
+            double variance = 0;
+            for (double s : samples) {
+                variance += (s - mean) * (s - mean);
+            }
+            double stddev = measureIterations > 1 ? Math.sqrt(variance / (measureIterations - 1)) : 0;
+            System.out.printf("%-40s %14.1f %12.1f %14.0f%n", names.get(i), mean, stddev, 1e9 / mean);
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    /** Runs the op in growing batches until the iteration time is used up; returns ns/op. */
+    private double measure(LongSupplier op) {
+        long count = 0;
+        long batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (long b = 0; b < batch; b++) {
+                sink += op.getAsLong();
+            }
+            count += batch;
+            elapsed = System.nanoTime() - start;
+            if (batch < 1 << 20) batch <<= 1;
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / count;
+    }
+}
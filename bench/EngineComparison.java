@@ -0,0 +1,78 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints per-puzzle node counts and solve times for every solver engine,
+ * either for the built-in corpus or for a line-per-puzzle file given as
+ * the first argument.
+ */
+public class EngineComparison {
+    private static final String[] ENGINES = {"bitmask", "dlx", "parallel"};
+    private static final int TIMING_RUNS = 20;
+
+    public static void main(String[] args) throws IOException {
+        List<String> puzzles = new ArrayList<>();
+        if (args.length > 0) {
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]))) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    if (line.length() >= 81) puzzles.add(line.substring(0, 81));
+                }
+            }
+        } else {
+            for (String[] corpus : new String[][] {PuzzleCorpus.EASY, PuzzleCorpus.HARD, PuzzleCorpus.PATHOLOGICAL}) {
+                puzzles.addAll(List.of(corpus));
+            }
+        }
+
+        SolverEngine[] engines = new SolverEngine[ENGINES.length];
+        StringBuilder header = new StringBuilder(String.format("%-5s", "#"));
+        for (int e = 0; e < ENGINES.length; e++) {
+            engines[e] = SolverEngine.create(ENGINES[e]);
+            header.append(String.format(" %12s %10s", ENGINES[e] + " nodes", "us"));
+        }
+        System.out.println(header.append("  winner"));
+
+        // Warm up every engine so the first rows are not interpreter timings
+        for (int warm = 0; warm < TIMING_RUNS; warm++) {
+            for (SolverEngine engine : engines) {
+                for (String puzzle : puzzles) {
+                    engine.countSolutions(PuzzleCorpus.parse(puzzle), 2);
+                }
+            }
+        }
+
+        int[] grid = new int[81];
+        int[] wins = new int[ENGINES.length];
+        for (int p = 0; p < puzzles.size(); p++) {
+            int[] puzzle = PuzzleCorpus.parse(puzzles.get(p));
+            StringBuilder line = new StringBuilder(String.format("%-5d", p));
+            int winner = 0;
+            double bestMicros = Double.MAX_VALUE;
+            for (int e = 0; e < engines.length; e++) {
+                // Uniqueness check: the work generation and validation actually do
+                engines[e].countSolutions(puzzle, 2);
+                long nodes = engines[e].getNodeCount();
+                long start = System.nanoTime();
+                for (int run = 0; run < TIMING_RUNS; run++) {
+                    System.arraycopy(puzzle, 0, grid, 0, 81);
+                    engines[e].countSolutions(grid, 2);
+                }
+                double micros = (System.nanoTime() - start) / 1e3 / TIMING_RUNS;
+                if (micros < bestMicros) {
+                    bestMicros = micros;
+                    winner = e;
+                }
+                line.append(String.format(" %12d %10.1f", nodes, micros));
+            }
+            wins[winner]++;
+            System.out.println(line.append("  ").append(ENGINES[winner]));
+        }
+        for (int e = 0; e < ENGINES.length; e++) {
+            System.out.printf("%s wins: %d%n", ENGINES[e], wins[e]);
+        }
+    }
+}
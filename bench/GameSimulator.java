@@ -0,0 +1,287 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Headless bots that play full games through the same {@link GameModel}
+ * calls and listeners as the Swing game: right and wrong placements,
+ * notes, clears, undo/redo and hints, until the board is solved. Each
+ * operation is timed including the listeners it triggers (board render,
+ * optional full paint, and queueing the autosave), and the bytes it
+ * allocates are counted, so regressions in any part of a move show up
+ * as numbers.
+ *
+ * {@code java -cp target/sudoku-bench.jar GameSimulator [--games n] [--warmup n] [--threads n]
+ * [--difficulty d] [--errors p] [--paint] [--no-save] [--seed n]}
+ */
+public class GameSimulator {
+    private enum Op { START, PLACE, WRONG, NOTE, CLEAR, UNDO, REDO, HINT }
+
+    private static final double HINT_RATE = 0.03;
+    private static final double UNDO_RATE = 0.05;
+    private static final double NOTE_RATE = 0.30;
+    private static final int MAX_STEPS = 100_000;
+    private static final int VIEW_SIZE = 540;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final LatencyHistogram[] latency = new LatencyHistogram[Op.values().length];
+    private final LongAdder[] allocated = new LongAdder[Op.values().length];
+    private final LatencyHistogram render = new LatencyHistogram("render");
+    private final LatencyHistogram paint = new LatencyHistogram("paint");
+    private final LatencyHistogram save = new LatencyHistogram("save");
+    private final Difficulty difficulty;
+    private final double errorRate;
+    private final boolean painting;
+    private final boolean saving;
+
+    GameSimulator(Difficulty difficulty, double errorRate, boolean painting, boolean saving) {
+        this.difficulty = difficulty;
+        this.errorRate = errorRate;
+        this.painting = painting;
+        this.saving = saving;
+        for (Op op : Op.values()) {
+            latency[op.ordinal()] = new LatencyHistogram(op.name().toLowerCase());
+            allocated[op.ordinal()] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int games = 2000;
+        int warmup = 200;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Difficulty difficulty = Difficulty.MEDIUM;
+        double errorRate = 0.1;
+        boolean painting = false;
+        boolean saving = true;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--difficulty": difficulty = Difficulty.parse(args[++i]); break;
+                case "--errors": errorRate = Double.parseDouble(args[++i]); break;
+                case "--paint": painting = true; break;
+                case "--no-save": saving = false; break;
+                case "--seed": seed = Long.decode(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (!THREADS.isThreadAllocatedMemoryEnabled()) {
+            System.err.println("Per-thread allocation counting is not available; bytes/op will read 0");
+        }
+
+        GameSimulator simulator = new GameSimulator(difficulty, errorRate, painting, saving);
+        // Puzzles are generated up front so generation never counts towards the moves
+        Puzzle[] puzzles = generate(warmup + games, difficulty, seed);
+        if (warmup > 0) {
+            simulator.run(puzzles, 0, warmup, threads);
+            simulator.reset();
+        }
+        long[] totals = simulator.run(puzzles, warmup, puzzles.length, threads);
+        simulator.report(games, threads, totals);
+    }
+
+    static Puzzle[] generate(int count, Difficulty difficulty, long seed) {
+        ThreadLocal<PuzzleGenerator> generators =
+                ThreadLocal.withInitial(() -> new PuzzleGenerator(new SplittableRandom()));
+        return IntStream.range(0, count).parallel()
+                .mapToObj(i -> generators.get().generate(PuzzleGenerator.seedFor(seed, i), difficulty))
+                .toArray(Puzzle[]::new);
+    }
+
+    /** Plays puzzles {@code from} to {@code to}; returns elapsed nanoseconds and bytes allocated by the bots. */
+    long[] run(Puzzle[] puzzles, int from, int to, int threads) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger(from);
+        LongAdder bytes = new LongAdder();
+        List<Thread> bots = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Thread bot = new Thread(() -> {
+                long before = THREADS.getCurrentThreadAllocatedBytes();
+                try {
+                    new Bot().playAll(puzzles, next, to);
+                } catch (IOException | RuntimeException e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+                bytes.add(THREADS.getCurrentThreadAllocatedBytes() - before);
+            }, "bot-" + t);
+            bots.add(bot);
+            bot.start();
+        }
+        for (Thread bot : bots) {
+            bot.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Bot failed", failures.get(0));
+        }
+        return new long[] {System.nanoTime() - start, bytes.sum()};
+    }
+
+    void reset() {
+        for (Op op : Op.values()) {
+            latency[op.ordinal()].reset();
+            allocated[op.ordinal()].reset();
+        }
+        render.reset();
+        paint.reset();
+        save.reset();
+    }
+
+    private void report(int games, int threads, long[] totals) {
+        double seconds = totals[0] / 1e9;
+        long operations = 0;
+        for (LatencyHistogram h : latency) {
+            operations += h.count();
+        }
+        System.out.printf("Played %d %s games (%d operations) in %.2fs on %d threads: %.0f ops/s, %.1f MB/s allocated%n",
+                games, difficulty.name().toLowerCase(), operations, seconds, threads, operations / seconds,
+                totals[1] / seconds / 1e6);
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", "op", "count", "mean us", "p50 us", "p99 us", "max us", "B/op");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latency[op.ordinal()];
+            if (h.count() == 0) continue;
+            print(h, (double) allocated[op.ordinal()].sum() / h.count());
+        }
+        // Listener shares of the operations above
+        for (LatencyHistogram h : new LatencyHistogram[] {render, paint, save}) {
+            if (h.count() > 0) print(h, Double.NaN);
+        }
+    }
+
+    private static void print(LatencyHistogram h, double bytesPerOp) {
+        System.out.printf("%-8s %10d %10.2f %10.2f %10.2f %10.1f %10s%n", h.name(), h.count(), h.mean() / 1e3,
+                h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.max() / 1e3,
+                Double.isNaN(bytesPerOp) ? "-" : String.format("%.0f", bytesPerOp));
+    }
+
+    /** One bot thread: a model with the game's listeners attached, reused across games. */
+    private final class Bot {
+        private final GameModel model = new GameModel();
+        private SplittableRandom random;
+
+        Bot() throws IOException {
+            BoardView view = new BoardView(3);
+            view.setSize(VIEW_SIZE, VIEW_SIZE);
+            Graphics2D graphics = new BufferedImage(VIEW_SIZE, VIEW_SIZE, BufferedImage.TYPE_INT_RGB).createGraphics();
+            model.addListener(state -> {
+                long start = System.nanoTime();
+                Sudoku.renderBoard(view, state);
+                render.recordSince(start);
+                if (painting) {
+                    start = System.nanoTime();
+                    view.paint(graphics);
+                    paint.recordSince(start);
+                }
+            });
+            if (saving) {
+                Path file = Files.createTempFile("sudoku-sim", ".bin");
+                file.toFile().deleteOnExit();
+                AutoSaver saver = new AutoSaver(file);
+                model.addListener(state -> {
+                    long start = System.nanoTime();
+                    if (state.isSolved()) saver.delete();
+                    else saver.save(model::save);
+                    save.recordSince(start);
+                });
+            }
+        }
+
+        void playAll(Puzzle[] puzzles, AtomicInteger next, int to) {
+            for (int game; (game = next.getAndIncrement()) < to; ) {
+                random = new SplittableRandom(puzzles[game].seed());
+                play(puzzles[game]);
+            }
+        }
+
+        private void play(Puzzle puzzle) {
+            int[] solution = puzzle.solution();
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            model.start(puzzle);
+            record(Op.START, start, bytes);
+
+            for (int step = 0; !model.state().isSolved(); step++) {
+                if (step == MAX_STEPS) throw new IllegalStateException("Bot did not finish puzzle " + puzzle);
+                double roll = random.nextDouble();
+                if (roll < HINT_RATE) {
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    model.hint();
+                    record(Op.HINT, start, bytes);
+                } else if (roll < HINT_RATE + UNDO_RATE) {
+                    if (!model.state().canUndo()) continue;
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    model.undo();
+                    record(Op.UNDO, start, bytes);
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    model.redo();
+                    record(Op.REDO, start, bytes);
+                } else if (roll < HINT_RATE + UNDO_RATE + NOTE_RATE) {
+                    int cell = emptyCell();
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    model.toggleNote(cell, 1 + random.nextInt(9));
+                    record(Op.NOTE, start, bytes);
+                } else if (random.nextDouble() < errorRate) {
+                    // A wrong digit, then either cleared or undone, as a player would
+                    int cell = emptyCell();
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    model.place(cell, solution[cell] % 9 + 1);
+                    record(Op.WRONG, start, bytes);
+                    boolean clear = random.nextBoolean();
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    if (clear) model.clear(cell);
+                    else model.undo();
+                    record(clear ? Op.CLEAR : Op.UNDO, start, bytes);
+                } else {
+                    int cell = emptyCell();
+                    bytes = allocatedBytes();
+                    start = System.nanoTime();
+                    model.place(cell, solution[cell]);
+                    record(Op.PLACE, start, bytes);
+                }
+            }
+        }
+
+        /** A random cell with no value; wrong values never linger, so one exists until solved. */
+        private int emptyCell() {
+            GameState state = model.state();
+            int cell;
+            do {
+                cell = random.nextInt(Puzzle.CELLS);
+            } while (state.value(cell) != 0);
+            return cell;
+        }
+
+        private void record(Op op, long start, long bytesBefore) {
+            latency[op.ordinal()].recordSince(start);
+            allocated[op.ordinal()].add(allocatedBytes() - bytesBefore);
+        }
+
+        private long allocatedBytes() {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Fixed benchmark corpus. Never edit existing entries: results are only
+ * comparable between releases while the inputs stay the same. Every entry
+ * has exactly one solution.
+ */
+public final class PuzzleCorpus {
+    private PuzzleCorpus() {
+    }
+
+    /** Generated puzzles with 41 givens. */
+    public static final String[] EASY = {
+        "..182.....2...6.8..653742916.8...3.25...4.1...34.8.659.4...18353.625....1574....6",
+        ".26.45.9773....4....4.17..2.1..5.3.826....91.84.691.2....1.9..6...86317..915.428.",
+        ".74..9.35.28..697..91237...46738.....85.72.46..25...877..6...28..97...1..4..23.5.",
+        "..1257.697634..852.2..36..1.97..36..342...9.7...9.4.381.8...5...3...27...5.748..3",
+        "39724..6...8.739..2..9.5....5...238.68435.2....3189.561.2..6.34..9.34......7.1.98",
+    };
+
+    /** Well-known hard puzzles with 17 to 23 givens. */
+    public static final String[] HARD = {
+        "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+        "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+        "6.....8.3.4.7.................5.4.7.3..2.....1.6.......2.....5.....8.6......1....",
+        "48.3............71.2.......7.5....6....2..8.............1.76...3.....4......5....",
+        "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+    };
+
+    /**
+     * Puzzles built to defeat naive backtracking: the first rows are mostly
+     * empty and the solution's first row is close to 987654321.
+     */
+    public static final String[] PATHOLOGICAL = {
+        "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9",
+        ".......1.4.........2...........5.4.7..8...3....1.9....3..4..2...5.1........8.6...",
+        "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..",
+        "85...24..72......9..4.........1.7..23.5...9...4...........8..7..17..........36.4.",
+    };
+
+    /** Parses an 81-character line ('.' or '0' = blank) into a row-major grid. */
+    public static int[] parse(String line) {
+        int[] grid = new int[81];
+        for (int i = 0; i < 81; i++) {
+            char ch = line.charAt(i);
+            grid[i] = (ch == '.' || ch == '0') ? 0 : ch - '0';
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test for {@link PuzzleServer}. Each client repeatedly
+ * fetches a puzzle (every tenth by seed), then plays it with a mix of move
+ * checks and hint requests, as a thin client would. Reports p50/p99
+ * latency per endpoint and overall requests per second.
+ *
+ * Starts its own server on a free local port unless {@code --url} points
+ * at a running one:
+ * {@code java -cp target/sudoku-bench.jar ServerLoadTest [--url u] [--clients n] [--requests n] [--warmup n]}
+ */
+public class ServerLoadTest {
+    private static final String[] ENDPOINTS = {"puzzle", "validate", "hint"};
+    private static final int MOVES_PER_PUZZLE = 20;
+    private static final int SEEDED_EVERY = 10;
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 8;
+        long requests = 20_000;
+        long warmup = 2_000;
+        String difficulty = "easy";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url": url = args[++i]; break;
+                case "--clients": clients = Integer.parseInt(args[++i]); break;
+                case "--requests": requests = Long.parseLong(args[++i]); break;
+                case "--warmup": warmup = Long.parseLong(args[++i]); break;
+                case "--difficulty": difficulty = args[++i]; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        PuzzleServer server = null;
+        if (url == null) {
+            server = new PuzzleServer(new InetSocketAddress("127.0.0.1", 0),
+                    Runtime.getRuntime().availableProcessors() * 2, 64);
+            server.start();
+            url = "http://127.0.0.1:" + server.port();
+        }
+        try {
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            if (warmup > 0) run(http, url, difficulty, clients, warmup);
+            LatencyHistogram[] latencies = run(http, url, difficulty, clients, requests);
+            report(latencies);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static LatencyHistogram[] run(HttpClient http, String url, String difficulty, int clients,
+                                          long requests) throws InterruptedException {
+        LatencyHistogram[] latencies = new LatencyHistogram[ENDPOINTS.length + 1];
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            latencies[i] = new LatencyHistogram(ENDPOINTS[i]);
+        }
+        LatencyHistogram all = latencies[ENDPOINTS.length] = new LatencyHistogram("all");
+        AtomicLong remaining = new AtomicLong(requests);
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            long clientSeed = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    new Client(http, url, difficulty, new SplittableRandom(clientSeed), latencies, all)
+                            .play(remaining, failures);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d requests in %.2fs: %.0f requests/s, %d clients, %d failures%n",
+                requests, seconds, requests / seconds, clients, failures.get());
+        return latencies;
+    }
+
+    private static void report(LatencyHistogram[] latencies) {
+        System.out.printf("%-10s %10s %10s %10s %10s %10s%n", "endpoint", "count", "mean us", "p50 us", "p99 us", "max us");
+        for (LatencyHistogram h : latencies) {
+            if (h.count() == 0) continue;
+            System.out.printf("%-10s %10d %10.1f %10.1f %10.1f %10.1f%n", h.name(), h.count(), h.mean() / 1e3,
+                    h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.max() / 1e3);
+        }
+    }
+
+    /** One simulated player: a puzzle, then moves and hints against it. */
+    private static final class Client {
+        private final HttpClient http;
+        private final String url;
+        private final String difficulty;
+        private final SplittableRandom random;
+        private final LatencyHistogram[] latencies;
+        private final LatencyHistogram all;
+
+        Client(HttpClient http, String url, String difficulty, SplittableRandom random,
+               LatencyHistogram[] latencies, LatencyHistogram all) {
+            this.http = http;
+            this.url = url;
+            this.difficulty = difficulty;
+            this.random = random;
+            this.latencies = latencies;
+            this.all = all;
+        }
+
+        void play(AtomicLong remaining, AtomicLong failures) {
+            long puzzles = 0;
+            while (remaining.getAndDecrement() > 0) {
+                String query = puzzles++ % SEEDED_EVERY == 0
+                        ? "seed=" + random.nextLong() + "&difficulty=" + difficulty
+                        : "difficulty=" + difficulty;
+                String body = get(0, "/puzzle?" + query, failures);
+                if (body == null) continue;
+                String givens = field(body, "givens");
+                char[] board = givens.toCharArray();
+                for (int move = 0; move < MOVES_PER_PUZZLE && remaining.getAndDecrement() > 0; move++) {
+                    if (random.nextInt(4) == 0) {
+                        get(2, "/hint?puzzle=" + givens + "&board=" + new String(board), failures);
+                        continue;
+                    }
+                    int cell;
+                    do {
+                        cell = random.nextInt(81);
+                    } while (givens.charAt(cell) != '.');
+                    int value = 1 + random.nextInt(9);
+                    String result = get(1, "/validate?puzzle=" + givens + "&board=" + new String(board)
+                            + "&cell=" + cell + "&value=" + value, failures);
+                    // Keep only correct entries so hints keep reasoning about the board
+                    if (result != null && result.contains("\"correct\":true")) board[cell] = (char) ('0' + value);
+                }
+            }
+        }
+
+        private String get(int endpoint, String path, AtomicLong failures) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + path)).GET().build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                long elapsed = System.nanoTime() - start;
+                latencies[endpoint].record(elapsed);
+                all.record(elapsed);
+                if (response.statusCode() != 200) {
+                    failures.incrementAndGet();
+                    return null;
+                }
+                return response.body();
+            } catch (IOException e) {
+                failures.incrementAndGet();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        private static String field(String json, String name) {
+            int start = json.indexOf("\"" + name + "\":\"") + name.length() + 4;
+            return json.substring(start, json.indexOf('"', start));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+
+/**
+ * Regression benchmarks for the solver, generator and per-click conflict
+ * update. Run with {@code java -cp target/sudoku-bench.jar SudokuBenchmarks [filter]}.
+ */
+public class SudokuBenchmarks {
+    public static void main(String[] args) {
+        Bench bench = new Bench(args);
+
+        BitmaskSolver solver = new BitmaskSolver();
+        for (String engineName : new String[] {"bitmask", "dlx", "parallel"}) {
+            SolverEngine engine = SolverEngine.create(engineName);
+            addSolveBenchmarks(bench, engine, "solve." + engineName + ".easy", PuzzleCorpus.EASY);
+            addSolveBenchmarks(bench, engine, "solve." + engineName + ".hard", PuzzleCorpus.HARD);
+            addSolveBenchmarks(bench, engine, "solve." + engineName + ".pathological", PuzzleCorpus.PATHOLOGICAL);
+        }
+
+        int[] easyGrid = PuzzleCorpus.parse(PuzzleCorpus.EASY[0]);
+        int[][] board = toBoard(easyGrid);
+        bench.add("isValidMove.fullBoard", () -> {
+            long valid = 0;
+            for (int cell = 0; cell < 81; cell++) {
+                for (int num = 1; num <= 9; num++) {
+                    if (VariantRules.CLASSIC.isValidMove(easyGrid, cell, num)) valid++;
+                }
+            }
+            return valid;
+        });
+
+        PuzzleGenerator generator = new PuzzleGenerator(new SplittableRandom(1));
+        int[] solved = PuzzleCorpus.parse(PuzzleCorpus.HARD[0]);
+        solver.solve(solved);
+        int[] grid = new int[81];
+        bench.add("removeCells.50", () -> {
+            System.arraycopy(solved, 0, grid, 0, 81);
+            return generator.removeCells(grid, 50);
+        });
+        bench.add("generate.50", () -> generator.generate(50).clueCount());
+        PuzzleGenerator dlxGenerator = new PuzzleGenerator(new SplittableRandom(1), new DlxSolver());
+        bench.add("generate.dlx.50", () -> dlxGenerator.generate(50).clueCount());
+
+        for (int box = 4; box <= 5; box++) {
+            BoardGeometry geometry = BoardGeometry.of(box);
+            GridGenerator gridGenerator = new GridGenerator(geometry, new SplittableRandom(box));
+            int[] gridGivens = new int[geometry.cells];
+            int[] gridSolution = new int[geometry.cells];
+            bench.add("generate.grid" + geometry.size, () -> gridGenerator.generate(geometry.cells, gridGivens, gridSolution));
+        }
+
+        LogicalSolver grader = new LogicalSolver();
+        for (String[] corpus : new String[][] {PuzzleCorpus.EASY, PuzzleCorpus.HARD, PuzzleCorpus.PATHOLOGICAL}) {
+            int[][] puzzles = new int[corpus.length][];
+            for (int i = 0; i < corpus.length; i++) {
+                puzzles[i] = PuzzleCorpus.parse(corpus[i]);
+            }
+            String name = corpus == PuzzleCorpus.EASY ? "easy" : corpus == PuzzleCorpus.HARD ? "hard" : "pathological";
+            bench.add("grade." + name, () -> {
+                long total = 0;
+                for (int[] puzzle : puzzles) {
+                    total += grader.grade(puzzle).ordinal();
+                }
+                return total;
+            });
+        }
+        for (Difficulty difficulty : Difficulty.values()) {
+            bench.add("generate." + difficulty.name().toLowerCase(), () -> generator.generate(difficulty).clueCount());
+        }
+
+        for (Variant variant : Variant.values()) {
+            String name = variant.name().toLowerCase();
+            VariantGenerator variantGenerator = new VariantGenerator(EnumSet.of(variant), new SplittableRandom(1));
+            bench.add("generate.variant." + name, () -> variantGenerator.generate(Puzzle.CELLS).clueCount());
+
+            Puzzle[] variantPuzzles = new Puzzle[8];
+            for (int i = 0; i < variantPuzzles.length; i++) {
+                variantPuzzles[i] = variantGenerator.generate(i, Puzzle.CELLS);
+            }
+            int[] variantGrid = new int[81];
+            bench.add("solve.variant." + name, () -> {
+                long nodes = 0;
+                for (Puzzle puzzle : variantPuzzles) {
+                    VariantSolver variantSolver = new VariantSolver(puzzle.rules());
+                    System.arraycopy(puzzle.givens(), 0, variantGrid, 0, 81);
+                    variantSolver.solve(variantGrid);
+                    nodes += variantSolver.getNodeCount();
+                }
+                return nodes;
+            });
+        }
+
+        Canonicalizer canonicalizer = new Canonicalizer();
+        int[] hardPuzzle = PuzzleCorpus.parse(PuzzleCorpus.HARD[0]);
+        bench.add("canonicalize.puzzle", () -> canonicalizer.hash(hardPuzzle));
+        bench.add("canonicalize.solution", () -> canonicalizer.hash(solved));
+
+        String[][] texts = toTexts(board);
+        bench.add("conflictScan.fullBoard", () -> fullConflictScan(texts));
+
+        ConflictTracker tracker = new ConflictTracker();
+        int[] easy = PuzzleCorpus.parse(PuzzleCorpus.EASY[0]);
+        for (int i = 0; i < 81; i++) {
+            tracker.set(i, easy[i]);
+        }
+        bench.add("conflictTracker.placeAndClear", () -> {
+            // One click placing a conflicting digit and one clearing it
+            tracker.set(0, 1);
+            boolean conflict = tracker.isConflict(0);
+            tracker.set(0, 0);
+            return conflict ? 1 : 0;
+        });
+
+        bench.run();
+    }
+
+    private static void addSolveBenchmarks(Bench bench, SolverEngine solver, String name, String[] corpus) {
+        int[][] puzzles = new int[corpus.length][];
+        for (int i = 0; i < corpus.length; i++) {
+            puzzles[i] = PuzzleCorpus.parse(corpus[i]);
+        }
+        int[] grid = new int[81];
+        bench.add(name, () -> {
+            long nodes = 0;
+            for (int[] puzzle : puzzles) {
+                System.arraycopy(puzzle, 0, grid, 0, 81);
+                solver.solve(grid);
+                nodes += solver.getNodeCount();
+            }
+            return nodes;
+        });
+    }
+
+    /**
+     * Mirrors Sudoku.updateAllHighlights: every tile scans its row, column
+     * and box comparing tile texts. Returns the number of conflicting tiles.
+     */
+    static long fullConflictScan(String[][] texts) {
+        long conflicts = 0;
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                String value = texts[r][c];
+                if (value.isEmpty()) continue;
+                boolean hasConflict = false;
+                for (int col = 0; col < 9 && !hasConflict; col++) {
+                    hasConflict = col != c && texts[r][col].equals(value);
+                }
+                for (int row = 0; row < 9 && !hasConflict; row++) {
+                    hasConflict = row != r && texts[row][c].equals(value);
+                }
+                int boxR = (r / 3) * 3, boxC = (c / 3) * 3;
+                for (int i = 0; i < 9 && !hasConflict; i++) {
+                    int row = boxR + i / 3, col = boxC + i % 3;
+                    hasConflict = (row != r || col != c) && texts[row][col].equals(value);
+                }
+                if (hasConflict) conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    private static int[][] toBoard(int[] grid) {
+        int[][] board = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            board[i / 9][i % 9] = grid[i];
+        }
+        return board;
+    }
+
+    private static String[][] toTexts(int[][] board) {
+        String[][] texts = new String[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                texts[r][c] = board[r][c] == 0 ? "" : String.valueOf(board[r][c]);
+            }
+        }
+        return texts;
+    }
+}
@@ -1,5 +1,28 @@
+import java.util.Arrays;
+
 public class App {
     public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            String[] rest = Arrays.copyOfRange(args, 1, args.length);
+            switch (args[0]) {
+                case "generate":
+                    BatchGenerator.main(rest);
+                    return;
+                case "library":
+                    PuzzleLibrary.main(rest);
+                    return;
+                case "validate":
+                    BulkValidator.main(rest);
+                    return;
+                case "serve":
+                    PuzzleServer.main(rest);
+                    return;
+                default:
+                    System.err.println("Unknown mode: " + args[0]);
+                    System.err.println("Modes: generate, library, validate, serve");
+                    System.exit(2);
+            }
+        }
         Sudoku sudoku = new Sudoku();
     }
 }
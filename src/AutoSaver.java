@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Writes game snapshots on a background thread so the caller never waits
+ * on disk. Each save goes to a temporary file that is atomically renamed
+ * over the previous one, so a crash never leaves a half-written save.
+ * Bursts of saves are coalesced: a save only queues where the snapshot
+ * comes from, and the writer takes and encodes one snapshot per write, so
+ * the caller copies nothing per move however long the game's history is.
+ */
+public class AutoSaver implements AutoCloseable {
+    private final Path target;
+    private final Path temp;
+    private final AtomicReference<Supplier<GameSnapshot>> pending = new AtomicReference<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AutoSaver(Path target) {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    /** Default location: ~/.sudoku/autosave.bin, or -Dsudoku.save=file. */
+    public static Path defaultPath() {
+        String path = System.getProperty("sudoku.save");
+        if (path != null) return Paths.get(path);
+        return Paths.get(System.getProperty("user.home"), ".sudoku", "autosave.bin");
+    }
+
+    /**
+     * Queues a save and returns immediately. The writer thread calls
+     * {@code snapshot}, e.g. {@code model::save}, when it gets to it.
+     */
+    public void save(Supplier<GameSnapshot> snapshot) {
+        if (pending.getAndSet(snapshot) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /** Removes the saved game, e.g. once it has been completed. */
+    public void delete() {
+        pending.set(null);
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                System.err.println("Could not delete saved game: " + e.getMessage());
+            }
+        });
+    }
+
+    /** Reads the last saved game, or returns null if there is none or it is unreadable. */
+    public GameSnapshot load() {
+        try {
+            if (!Files.exists(target)) return null;
+            return GameSnapshot.decode(Files.readAllBytes(target));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignoring saved game: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Writes any pending snapshot and stops the writer thread. */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending() {
+        Supplier<GameSnapshot> snapshot = pending.getAndSet(null);
+        if (snapshot == null) return;
+        byte[] data = snapshot.get().encode();
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Autosave failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Headless bulk puzzle generator. Work is split into fixed-size chunks that
+ * run as fork/join tasks; each chunk owns its own generator, so threads
+ * share nothing. Chunks run in waves of a few per thread and each wave is
+ * written in order, which bounds memory and keeps the output independent
+ * of scheduling.
+ *
+ * Puzzle {@code i} of a run is generated from
+ * {@link PuzzleGenerator#seedFor seedFor(seed, i)}, so the same
+ * {@code --seed} reproduces the same file on any number of threads, and
+ * any single line can be regenerated from its seed alone.
+ *
+ * Output is one puzzle per line: 81 givens ('.' = blank), a comma, then
+ * the 81-digit solution. With {@code --box 4} or {@code --box 5} the lines
+ * hold 256 or 625 cells and digits above 9 are written as letters A-P.
+ * With {@code --dedup}, puzzles equivalent under symmetry and relabelling
+ * to one already written are replaced by fresh ones. Chunks canonicalize
+ * their puzzles in parallel, but the index is only consulted as each wave
+ * is written, in puzzle order, so the replacements do not depend on the
+ * thread count either. With
+ * {@code --variant diagonal,killer} the puzzles follow variant rules and
+ * each line gains a third field, the rules in {@link VariantRules} text form.
+ */
+public class BatchGenerator {
+    private static final int CHUNK_SIZE = 256;
+    // Chunks per thread in flight before a wave is written out
+    private static final int WAVE_CHUNKS_PER_THREAD = 4;
+    private static final int DEFAULT_BLANKS = 50;
+    // A 9x9 line: givens, comma, solution, newline
+    private static final int LINE_LENGTH = Puzzle.CELLS * 2 + 2;
+
+    public static void main(String[] args) throws IOException {
+        int count = -1;
+        int boxSize = 3;
+        int blanks = -1;
+        Difficulty difficulty = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String engine = "bitmask";
+        String outPath = null;
+        boolean dedup = false;
+        EnumSet<Variant> variants = EnumSet.noneOf(Variant.class);
+        Long seed = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--box": boxSize = Integer.parseInt(args[++i]); break;
+                case "--blanks": blanks = Integer.parseInt(args[++i]); break;
+                case "--difficulty": difficulty = Difficulty.parse(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--engine": engine = args[++i]; break;
+                case "--out": outPath = args[++i]; break;
+                case "--dedup": dedup = true; break;
+                case "--variant": variants = Variant.parseList(args[++i]); break;
+                case "--seed": seed = Long.decode(args[++i]); break;
+                default: count = Integer.parseInt(args[i]);
+            }
+        }
+        if (count < 0) {
+            System.err.println("Usage: generate <count> [--box 2..5] [--blanks n | --difficulty easy|medium|hard|expert] [--threads n] [--engine bitmask|dlx|parallel] [--dedup] [--variant diagonal,windoku,killer,parity] [--seed n] [--out file]");
+            System.exit(2);
+        }
+        if (blanks < 0) {
+            // Larger boards are dug as far as the uniqueness budget allows
+            blanks = boxSize == 3 ? DEFAULT_BLANKS : BoardGeometry.of(boxSize).cells;
+        }
+        if (seed == null) {
+            seed = new SplittableRandom().nextLong();
+        }
+        System.err.println("Seed: " + seed);
+
+        OutputStream stream = outPath == null
+                ? new FileOutputStream(FileDescriptor.out)
+                : Files.newOutputStream(Paths.get(outPath));
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.US_ASCII), 1 << 16)) {
+            DedupIndex index = dedup ? new DedupIndex(count) : null;
+            long start = System.nanoTime();
+            generate(count, boxSize, blanks, difficulty, variants, threads, engine, index, seed, out);
+            out.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Generated %d puzzles in %.2fs (%.0f puzzles/s, %d threads)%n",
+                    count, seconds, count / seconds, threads);
+            if (index != null) {
+                System.err.printf("Rejected %d equivalent duplicates%n", index.duplicates());
+            }
+            if (Metrics.ENABLED) Metrics.dump(System.err);
+        }
+    }
+
+    /**
+     * Generates {@code count} puzzles in parallel and writes them to {@code out}.
+     * With a non-null difficulty, puzzles are filtered to that band and
+     * {@code blanks} is ignored. Box sizes other than 3 always use
+     * {@link GridGenerator} and cannot be graded. A non-null {@code dedup}
+     * index skips 9x9 puzzles equivalent to any it already holds; a skipped
+     * puzzle is replaced, while its wave is written, from a seed derived from
+     * its own, so runs with duplicates are reproducible on any number of
+     * threads. Non-empty
+     * {@code variants} use {@link VariantGenerator}, which has its own
+     * solver, and cannot be combined with grading or deduplication.
+     */
+    public static void generate(int count, int boxSize, int blanks, Difficulty difficulty, EnumSet<Variant> variants,
+                                int threads, String engine, DedupIndex dedup, long seed, Writer out)
+            throws IOException {
+        SolverEngine.create(engine); // fail fast on a bad name
+        BoardGeometry.of(boxSize);
+        if (boxSize != 3 && difficulty != null) {
+            throw new IllegalArgumentException("Difficulty grading is only available for 9x9 puzzles");
+        }
+        if (boxSize != 3 && dedup != null) {
+            throw new IllegalArgumentException("Deduplication is only available for 9x9 puzzles");
+        }
+        if (!variants.isEmpty() && (boxSize != 3 || difficulty != null || dedup != null)) {
+            throw new IllegalArgumentException("Variant puzzles are 9x9 and cannot be graded or deduplicated");
+        }
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks == 0) return;
+        int wave = threads * WAVE_CHUNKS_PER_THREAD;
+        StringBuilder[] results = new StringBuilder[wave];
+        long[] hashes = dedup != null ? new long[wave * CHUNK_SIZE] : null;
+        PuzzleGenerator replacer = dedup != null
+                ? new PuzzleGenerator(new SplittableRandom(seed), SolverEngine.create(engine)) : null;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int first = 0; first < chunks; first += wave) {
+                int last = Math.min(chunks, first + wave);
+                pool.invoke(new ChunkTask(first, last, first, count, boxSize, blanks, difficulty, variants,
+                        engine, dedup != null, seed, results, hashes));
+                for (int i = 0; i < last - first; i++) {
+                    if (dedup != null) {
+                        replaceDuplicates(replacer, dedup, (first + i) * CHUNK_SIZE, blanks, difficulty, seed,
+                                results[i], hashes, i * CHUNK_SIZE);
+                    }
+                    out.append(results[i]);
+                    results[i] = null;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks a generated chunk against the index in puzzle order and
+     * overwrites each duplicate line with a replacement drawn from seeds
+     * derived from the duplicate's, until one is new.
+     */
+    private static void replaceDuplicates(PuzzleGenerator generator, DedupIndex dedup, int first, int blanks,
+                                          Difficulty difficulty, long seed, StringBuilder chunk,
+                                          long[] hashes, int offset) {
+        int lines = chunk.length() / LINE_LENGTH;
+        Canonicalizer canonicalizer = null;
+        int[] grid = new int[Puzzle.CELLS];
+        int[] solution = new int[Puzzle.CELLS];
+        StringBuilder line = new StringBuilder(LINE_LENGTH);
+        for (int i = 0; i < lines; i++) {
+            if (dedup.add(hashes[offset + i])) continue;
+            if (canonicalizer == null) canonicalizer = new Canonicalizer();
+            long puzzleSeed = PuzzleGenerator.seedFor(seed, first + i);
+            do {
+                puzzleSeed = PuzzleGenerator.seedFor(puzzleSeed, 0);
+                generatePuzzle(generator, puzzleSeed, blanks, difficulty, grid, solution);
+            } while (!dedup.add(grid, canonicalizer));
+            line.setLength(0);
+            appendPuzzle(line, grid, solution);
+            chunk.replace(i * LINE_LENGTH, (i + 1) * LINE_LENGTH, line.toString());
+        }
+    }
+
+    /** Fills {@code grid} and {@code solution} with the 9x9 puzzle addressed by {@code puzzleSeed}. */
+    private static void generatePuzzle(PuzzleGenerator generator, long puzzleSeed, int blanks,
+                                       Difficulty difficulty, int[] grid, int[] solution) {
+        if (difficulty != null) {
+            Puzzle puzzle = generator.generate(puzzleSeed, difficulty);
+            System.arraycopy(puzzle.givens(), 0, grid, 0, Puzzle.CELLS);
+            System.arraycopy(puzzle.solution(), 0, solution, 0, Puzzle.CELLS);
+        } else {
+            generator.setRandom(new SplittableRandom(puzzleSeed));
+            generator.generate(blanks, grid, solution);
+        }
+    }
+
+    private static void appendPuzzle(StringBuilder sb, int[] grid, int[] solution) {
+        Puzzle.appendGrid(sb, grid);
+        sb.append(',');
+        Puzzle.appendGrid(sb, solution);
+        sb.append('\n');
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromChunk, toChunk, waveStart, count, boxSize, blanks;
+        private final Difficulty difficulty;
+        private final EnumSet<Variant> variants;
+        private final String engine;
+        private final boolean dedup;
+        private final long seed;
+        private final transient StringBuilder[] results;
+        private final transient long[] hashes;
+
+        ChunkTask(int fromChunk, int toChunk, int waveStart, int count, int boxSize, int blanks,
+                  Difficulty difficulty, EnumSet<Variant> variants, String engine, boolean dedup, long seed,
+                  StringBuilder[] results, long[] hashes) {
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.waveStart = waveStart;
+            this.count = count;
+            this.boxSize = boxSize;
+            this.blanks = blanks;
+            this.difficulty = difficulty;
+            this.variants = variants;
+            this.engine = engine;
+            this.dedup = dedup;
+            this.seed = seed;
+            this.results = results;
+            this.hashes = hashes;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1) {
+                int mid = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ChunkTask(fromChunk, mid, waveStart, count, boxSize, blanks, difficulty, variants,
+                                engine, dedup, seed, results, hashes),
+                          new ChunkTask(mid, toChunk, waveStart, count, boxSize, blanks, difficulty, variants,
+                                engine, dedup, seed, results, hashes));
+                return;
+            }
+
+            int first = fromChunk * CHUNK_SIZE;
+            int n = Math.min(CHUNK_SIZE, count - first);
+            results[fromChunk - waveStart] = boxSize != 3 ? generateGrids(first, n)
+                    : !variants.isEmpty() ? generateVariants(first, n) : generatePuzzles(first, n);
+        }
+
+        private StringBuilder generatePuzzles(int first, int n) {
+            PuzzleGenerator generator = new PuzzleGenerator(new SplittableRandom(seed), SolverEngine.create(engine));
+            StringBuilder sb = new StringBuilder(n * LINE_LENGTH);
+            int[] solution = new int[Puzzle.CELLS];
+            int[] grid = new int[Puzzle.CELLS];
+            Canonicalizer canonicalizer = dedup ? new Canonicalizer() : null;
+            int offset = (fromChunk - waveStart) * CHUNK_SIZE;
+            for (int i = 0; i < n; i++) {
+                generatePuzzle(generator, PuzzleGenerator.seedFor(seed, first + i), blanks, difficulty,
+                        grid, solution);
+                if (dedup) hashes[offset + i] = canonicalizer.hash(grid);
+                appendPuzzle(sb, grid, solution);
+            }
+            return sb;
+        }
+
+        private StringBuilder generateVariants(int first, int n) {
+            VariantGenerator generator = new VariantGenerator(variants, new SplittableRandom(seed));
+            StringBuilder sb = new StringBuilder(n * (Puzzle.CELLS * 3 + 3));
+            for (int i = 0; i < n; i++) {
+                Puzzle puzzle = generator.generate(PuzzleGenerator.seedFor(seed, first + i), blanks);
+                Puzzle.appendGrid(sb, puzzle.givens());
+                sb.append(',');
+                Puzzle.appendGrid(sb, puzzle.solution());
+                sb.append(',').append(puzzle.rules()).append('\n');
+            }
+            return sb;
+        }
+
+        private StringBuilder generateGrids(int first, int n) {
+            BoardGeometry geometry = BoardGeometry.of(boxSize);
+            StringBuilder sb = new StringBuilder(n * (geometry.cells * 2 + 2));
+            int[] solution = new int[geometry.cells];
+            int[] grid = new int[geometry.cells];
+            for (int i = 0; i < n; i++) {
+                SplittableRandom random = new SplittableRandom(PuzzleGenerator.seedFor(seed, first + i));
+                new GridGenerator(geometry, random).generate(blanks, grid, solution);
+                BoardGeometry.appendGrid(sb, grid);
+                sb.append(',');
+                BoardGeometry.appendGrid(sb, solution);
+                sb.append('\n');
+            }
+            return sb;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * Backtracking Sudoku solver built on row, column and box candidate bitmasks.
+ * Always branches on the most constrained empty cell (fewest candidates) and
+ * works entirely on preallocated arrays, so a solve performs no allocation.
+ * An instance is not thread-safe; give each thread its own solver.
+ */
+public class BitmaskSolver implements SolverEngine {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int ALL_DIGITS = (1 << SIZE) - 1;
+
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+    private static final int[] ROW_OF = GEOMETRY.rowTable();
+    private static final int[] COL_OF = GEOMETRY.colTable();
+    private static final int[] BOX_OF = GEOMETRY.boxTable();
+
+    // Search state
+    private final int[] cells = new int[CELLS];
+    private final int[] rowUsed = new int[SIZE];
+    private final int[] colUsed = new int[SIZE];
+    private final int[] boxUsed = new int[SIZE];
+    private final int[] empties = new int[CELLS];
+    private final int[] digitOrder = new int[CELLS * SIZE];
+    private int[] firstSolution;
+    private int emptyCount;
+
+    private RandomGenerator random;
+    private AtomicBoolean cancel;
+    private boolean cancelled;
+    private long nodes;
+    private long backtracks;
+    private int solutionLimit;
+    private int solutionCount;
+
+    public BitmaskSolver() {
+        this(null);
+    }
+
+    /**
+     * @param random source used to shuffle candidate order, or null to always
+     *               try digits in ascending order
+     */
+    public BitmaskSolver(RandomGenerator random) {
+        this.random = random;
+    }
+
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Flag polled every 1024 nodes; once it is set, a running search stops
+     * as if nothing more was found. Pass null to turn polling off.
+     */
+    public void setCancellation(AtomicBoolean cancel) {
+        this.cancel = cancel;
+    }
+
+    /** True if the last search stopped because the cancellation flag was set. */
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /** Dead ends hit by the most recent search. */
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    @Override
+    public boolean solve(int[] grid) {
+        if (!load(grid)) return false;
+        if (!run(1) || cancelled) return false;
+        System.arraycopy(cells, 0, grid, 0, CELLS);
+        return true;
+    }
+
+
+    /** Counts solutions up to {@code limit}; a cancelled search returns those found so far. */
+    @Override
+    public int countSolutions(int[] grid, int limit) {
+        if (!load(grid)) return 0;
+        run(limit);
+        return solutionCount;
+    }
+
+    /**
+     * Like {@link #countSolutions(int[], int)}, also copying the first
+     * solution found into {@code firstSolution} when the count is non-zero,
+     * so checking and solving a puzzle takes a single search.
+     */
+    public int countSolutions(int[] grid, int limit, int[] firstSolution) {
+        this.firstSolution = firstSolution;
+        try {
+            return countSolutions(grid, limit);
+        } finally {
+            this.firstSolution = null;
+        }
+    }
+
+    private boolean load(int[] grid) {
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        emptyCount = 0;
+        for (int i = 0; i < CELLS; i++) {
+            int v = grid[i];
+            cells[i] = v;
+            if (v == 0) {
+                empties[emptyCount++] = i;
+                continue;
+            }
+            if (v < 0 || v > SIZE) return false;
+            int bit = 1 << (v - 1);
+            if (((rowUsed[ROW_OF[i]] | colUsed[COL_OF[i]] | boxUsed[BOX_OF[i]]) & bit) != 0) return false;
+            rowUsed[ROW_OF[i]] |= bit;
+            colUsed[COL_OF[i]] |= bit;
+            boxUsed[BOX_OF[i]] |= bit;
+        }
+        return true;
+    }
+
+    private boolean run(int limit) {
+        nodes = 0;
+        backtracks = 0;
+        cancelled = false;
+        solutionLimit = limit;
+        solutionCount = 0;
+        SolveEvent event = Metrics.beginSolve();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        boolean stopped = search(0);
+        if (Metrics.ENABLED) Metrics.solveFinished(start, nodes, backtracks);
+        Metrics.commitSolve(event, "bitmask", CELLS, nodes, solutionCount);
+        return stopped;
+    }
+
+    private int candidates(int cell) {
+        return ~(rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]) & ALL_DIGITS;
+    }
+
+    private boolean search(int depth) {
+        if ((++nodes & 0x3FF) == 0 && cancel != null && cancel.get()) {
+            cancelled = true;
+            return true; // unwind
+        }
+        if (depth == emptyCount) {
+            if (solutionCount == 0 && firstSolution != null) {
+                System.arraycopy(cells, 0, firstSolution, 0, CELLS);
+            }
+            // In counting mode keep going until the limit is reached
+            return ++solutionCount >= solutionLimit;
+        }
+
+        // Pick the empty cell with the fewest candidates and move it to 'depth'
+        int best = depth;
+        int bestCount = SIZE + 1;
+        for (int i = depth; i < emptyCount; i++) {
+            int count = Integer.bitCount(candidates(empties[i]));
+            if (count < bestCount) {
+                bestCount = count;
+                best = i;
+                if (count <= 1) break;
+            }
+        }
+        if (bestCount == 0) {
+            backtracks++;
+            return false;
+        }
+
+        int cell = empties[best];
+        empties[best] = empties[depth];
+        empties[depth] = cell;
+
+        int r = ROW_OF[cell], c = COL_OF[cell], b = BOX_OF[cell];
+        int mask = candidates(cell);
+        int base = depth * SIZE;
+        int n = 0;
+        while (mask != 0) {
+            int bit = mask & -mask;
+            mask ^= bit;
+            digitOrder[base + n++] = bit;
+        }
+        if (random != null) {
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = digitOrder[base + i];
+                digitOrder[base + i] = digitOrder[base + j];
+                digitOrder[base + j] = t;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            int bit = digitOrder[base + i];
+            cells[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+            rowUsed[r] |= bit;
+            colUsed[c] |= bit;
+            boxUsed[b] |= bit;
+            if (search(depth + 1)) return true;
+            rowUsed[r] ^= bit;
+            colUsed[c] ^= bit;
+            boxUsed[b] ^= bit;
+        }
+        cells[cell] = 0;
+        backtracks++;
+        return false;
+    }
+}
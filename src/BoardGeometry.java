@@ -0,0 +1,140 @@
+/**
+ * Precomputed tables for an N x N board built from boxSize x boxSize boxes
+ * (box sizes 2 to 5, i.e. 4x4 up to 25x25). Cells are row-major indices and
+ * digits 1..size map to candidate bits 0..size-1, which fit in an int for
+ * every supported size. Instances are immutable and shared per box size.
+ */
+public final class BoardGeometry {
+    public static final int MIN_BOX = 2;
+    public static final int MAX_BOX = 5;
+    private static final String SYMBOLS = ".123456789ABCDEFGHIJKLMNOP";
+    private static final BoardGeometry[] CACHE = new BoardGeometry[MAX_BOX + 1];
+
+    public final int boxSize;
+    public final int size;
+    public final int cells;
+    /** Mask with one bit per digit. */
+    public final int allDigits;
+
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] boxOf;
+    private final int[][] units;
+    private final int[][] peers;
+
+    private BoardGeometry(int boxSize) {
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        this.cells = size * size;
+        this.allDigits = (1 << size) - 1;
+
+        rowOf = new int[cells];
+        colOf = new int[cells];
+        boxOf = new int[cells];
+        // Rows 0..size-1, then columns, then boxes
+        units = new int[3 * size][size];
+        int[] fill = new int[3 * size];
+        for (int i = 0; i < cells; i++) {
+            int r = i / size, c = i % size;
+            rowOf[i] = r;
+            colOf[i] = c;
+            boxOf[i] = (r / boxSize) * boxSize + c / boxSize;
+            units[r][fill[r]++] = i;
+            units[size + c][fill[size + c]++] = i;
+            units[2 * size + boxOf[i]][fill[2 * size + boxOf[i]]++] = i;
+        }
+
+        int peerCount = 3 * size - 2 * boxSize - 1;
+        peers = new int[cells][peerCount];
+        for (int i = 0; i < cells; i++) {
+            int n = 0;
+            for (int j = 0; j < cells; j++) {
+                if (j != i && (rowOf[j] == rowOf[i] || colOf[j] == colOf[i] || boxOf[j] == boxOf[i])) {
+                    peers[i][n++] = j;
+                }
+            }
+        }
+    }
+
+    /** Shared geometry for the given box size. */
+    public static BoardGeometry of(int boxSize) {
+        if (boxSize < MIN_BOX || boxSize > MAX_BOX) {
+            throw new IllegalArgumentException("Box size must be " + MIN_BOX + ".." + MAX_BOX + ": " + boxSize);
+        }
+        synchronized (CACHE) {
+            if (CACHE[boxSize] == null) {
+                CACHE[boxSize] = new BoardGeometry(boxSize);
+            }
+            return CACHE[boxSize];
+        }
+    }
+
+    public int row(int cell) {
+        return rowOf[cell];
+    }
+
+    public int col(int cell) {
+        return colOf[cell];
+    }
+
+    public int box(int cell) {
+        return boxOf[cell];
+    }
+
+    /** Cells of unit {@code u}: rows are 0..size-1, columns size..2*size-1, boxes after that. */
+    public int[] unit(int u) {
+        return units[u];
+    }
+
+    public int unitCount() {
+        return units.length;
+    }
+
+    /** The cells sharing a row, column or box with {@code cell}. Do not modify. */
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    // Raw shared tables for the fixed-size 9x9 engines, which keep them in
+    // static finals for their hot loops. Do not modify.
+
+    int[] rowTable() {
+        return rowOf;
+    }
+
+    int[] colTable() {
+        return colOf;
+    }
+
+    int[] boxTable() {
+        return boxOf;
+    }
+
+    int[][] unitTable() {
+        return units;
+    }
+
+    int[][] peerTable() {
+        return peers;
+    }
+
+    /** Character for a value in line-per-puzzle files: '.', 1-9, then A-P. */
+    public static char symbol(int value) {
+        return SYMBOLS.charAt(value);
+    }
+
+    /** Inverse of {@link #symbol}; '0' is also read as blank. */
+    public static int value(char symbol) {
+        if (symbol == '0') return 0;
+        int v = SYMBOLS.indexOf(Character.toUpperCase(symbol));
+        if (v < 0) throw new IllegalArgumentException("Not a cell symbol: " + symbol);
+        return v;
+    }
+
+    /** Writes one symbol per cell, e.g. 256 characters for a 16x16 grid. */
+    public static void appendGrid(StringBuilder sb, int[] grid) {
+        for (int v : grid) {
+            sb.append(symbol(v));
+        }
+    }
+}
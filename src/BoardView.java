@@ -0,0 +1,307 @@
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * The whole Sudoku grid as one lightweight component. Values, pencil marks,
+ * cell shading and grid lines are painted in a single pass; changing a cell
+ * repaints only that cell's rectangle, and clicks are mapped to cells
+ * arithmetically. Fonts and note positions are derived once per cell size,
+ * so the board scales with the window and works for any box size.
+ */
+public class BoardView extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    /** Receives clicks on cells; {@code secondary} is true for right-clicks. */
+    public interface CellListener {
+        void cellClicked(int cell, boolean secondary);
+    }
+
+    private static final Color THIN_LINE = Color.GRAY;
+    private static final Color THICK_LINE = Color.BLACK;
+    private static final Color VALUE_COLOR = Color.BLACK;
+    private static final Color NOTE_COLOR = Color.DARK_GRAY;
+    private static final int THICK_WIDTH = 3;
+    private static final Color VARIANT_COLOR = new Color(70, 110, 170);
+    private static final Color WINDOW_TINT = new Color(70, 110, 170, 40);
+    private static final Stroke CAGE_STROKE = new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
+            10f, new float[] {3f, 3f}, 0f);
+    // Cage border sides, one bit each
+    private static final int TOP = 1, BOTTOM = 2, LEFT = 4, RIGHT = 8;
+
+    private final int boxSize;
+    private final int size;
+    private final int[] values;
+    private final int[] notes;
+    private final boolean[] original;
+    private final Color[] shades;
+    private final String[] labels;
+    private CellListener listener;
+    private VariantRules rules = VariantRules.CLASSIC;
+    // Per-cell variant marks, derived from the rules in setRules
+    private final int[] cageEdges;
+    private final String[] cageLabels;
+
+    // Layout derived from the current component size
+    private int cellSize = -1;
+    private int originX, originY;
+    private Font valueFont, originalFont, noteFont;
+    private final int[] noteX, noteY;
+    private final int[] valueX;
+    private int valueY;
+
+    public BoardView(int boxSize) {
+        this.boxSize = boxSize;
+        this.size = boxSize * boxSize;
+        int cells = size * size;
+        values = new int[cells];
+        notes = new int[cells];
+        original = new boolean[cells];
+        cageEdges = new int[cells];
+        cageLabels = new String[cells];
+        shades = new Color[cells];
+        Arrays.fill(shades, Color.WHITE);
+        labels = new String[size + 1];
+        for (int d = 1; d <= size; d++) {
+            labels[d] = String.valueOf(d);
+        }
+        noteX = new int[size + 1];
+        noteY = new int[size + 1];
+        valueX = new int[size + 1];
+
+        setOpaque(true);
+        setPreferredSize(new Dimension(size * 60, size * 60));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell >= 0 && listener != null) {
+                    listener.cellClicked(cell, SwingUtilities.isRightMouseButton(e));
+                }
+            }
+        });
+    }
+
+    public void setCellListener(CellListener listener) {
+        this.listener = listener;
+    }
+
+    public int getGridSize() {
+        return size;
+    }
+
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    public int notes(int cell) {
+        return notes[cell];
+    }
+
+    public boolean isOriginal(int cell) {
+        return original[cell];
+    }
+
+    /** Shows a value; a non-zero value hides the cell's notes. */
+    public void setValue(int cell, int value) {
+        if (values[cell] == value && (value == 0 || notes[cell] == 0)) return;
+        values[cell] = value;
+        if (value != 0) notes[cell] = 0;
+        repaintCell(cell);
+    }
+
+    public void setNotes(int cell, int mask) {
+        if (notes[cell] == mask) return;
+        notes[cell] = mask;
+        repaintCell(cell);
+    }
+
+    public void setOriginal(int cell, boolean isOriginal) {
+        if (original[cell] == isOriginal) return;
+        original[cell] = isOriginal;
+        repaintCell(cell);
+    }
+
+    public void setShade(int cell, Color color) {
+        if (shades[cell] == color) return;
+        shades[cell] = color;
+        repaintCell(cell);
+    }
+
+    /**
+     * Draws the marks of variant rules: diagonal lines, tinted windoku
+     * windows, dashed killer cages with their sums and parity symbols (a
+     * circle for odd, a square for even). Only 9x9 boards take variants.
+     */
+    public void setRules(VariantRules rules) {
+        if (this.rules == rules) return;
+        if (!rules.isClassic() && size != Puzzle.SIZE) {
+            throw new IllegalArgumentException("Variant rules need a 9x9 board");
+        }
+        this.rules = rules;
+        Arrays.fill(cageEdges, 0);
+        Arrays.fill(cageLabels, null);
+        for (int k = 0; k < rules.cageCount(); k++) {
+            int[] cage = rules.cage(k);
+            int first = cage[0];
+            for (int cell : cage) {
+                int row = cell / size, col = cell % size;
+                int edges = 0;
+                if (row == 0 || rules.cageOf(cell - size) != k) edges |= TOP;
+                if (row == size - 1 || rules.cageOf(cell + size) != k) edges |= BOTTOM;
+                if (col == 0 || rules.cageOf(cell - 1) != k) edges |= LEFT;
+                if (col == size - 1 || rules.cageOf(cell + 1) != k) edges |= RIGHT;
+                cageEdges[cell] = edges;
+                first = Math.min(first, cell);
+            }
+            cageLabels[first] = Integer.toString(rules.cageSum(k));
+        }
+        repaint();
+    }
+
+    /** Index of the cell under a point, or -1 outside the grid. */
+    public int cellAt(int x, int y) {
+        updateLayout();
+        int col = Math.floorDiv(x - originX, cellSize);
+        int row = Math.floorDiv(y - originY, cellSize);
+        if (row < 0 || row >= size || col < 0 || col >= size) return -1;
+        return row * size + col;
+    }
+
+    private void repaintCell(int cell) {
+        updateLayout();
+        repaint(originX + (cell % size) * cellSize - 1, originY + (cell / size) * cellSize - 1,
+                cellSize + THICK_WIDTH, cellSize + THICK_WIDTH);
+    }
+
+    /** Recomputes cell size, fonts and glyph offsets, but only when the size changed. */
+    private void updateLayout() {
+        Insets insets = getInsets();
+        int width = getWidth() - insets.left - insets.right - THICK_WIDTH;
+        int height = getHeight() - insets.top - insets.bottom - THICK_WIDTH;
+        int newCellSize = Math.max(1, Math.min(width, height) / size);
+        originX = insets.left + (width - newCellSize * size) / 2 + THICK_WIDTH / 2;
+        originY = insets.top + (height - newCellSize * size) / 2 + THICK_WIDTH / 2;
+        if (newCellSize == cellSize) return;
+        cellSize = newCellSize;
+
+        valueFont = new Font("Arial", Font.PLAIN, Math.max(6, cellSize * 9 / 20));
+        originalFont = valueFont.deriveFont(Font.BOLD);
+        noteFont = new Font("Arial", Font.PLAIN, Math.max(5, cellSize * 3 / (boxSize * 4)));
+
+        FontMetrics valueMetrics = getFontMetrics(originalFont);
+        FontMetrics noteMetrics = getFontMetrics(noteFont);
+        int slot = cellSize / boxSize;
+        for (int d = 1; d <= size; d++) {
+            valueX[d] = (cellSize - valueMetrics.stringWidth(labels[d])) / 2;
+            int col = (d - 1) % boxSize, row = (d - 1) / boxSize;
+            noteX[d] = col * slot + (slot - noteMetrics.stringWidth(labels[d])) / 2;
+            noteY[d] = row * slot + (slot + noteMetrics.getAscent() - noteMetrics.getDescent()) / 2;
+        }
+        valueY = (cellSize + valueMetrics.getAscent() - valueMetrics.getDescent()) / 2;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        updateLayout();
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(getParent() != null ? getParent().getBackground() : Color.WHITE);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        // Only cells intersecting the dirty region are painted
+        int firstCol = Math.max(0, (clip.x - originX) / cellSize - 1);
+        int lastCol = Math.min(size - 1, (clip.x + clip.width - originX) / cellSize);
+        int firstRow = Math.max(0, (clip.y - originY) / cellSize - 1);
+        int lastRow = Math.min(size - 1, (clip.y + clip.height - originY) / cellSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintCell(g2, row * size + col, originX + col * cellSize, originY + row * cellSize);
+            }
+        }
+        paintGrid(g2);
+    }
+
+    private void paintCell(Graphics2D g, int cell, int x, int y) {
+        g.setColor(shades[cell]);
+        g.fillRect(x, y, cellSize, cellSize);
+        int value = values[cell];
+        if (!rules.isClassic()) paintVariantMarks(g, cell, x, y);
+        if (value != 0) {
+            g.setFont(original[cell] ? originalFont : valueFont);
+            g.setColor(VALUE_COLOR);
+            g.drawString(labels[value], x + valueX[value], y + valueY);
+        } else if (notes[cell] != 0) {
+            g.setFont(noteFont);
+            g.setColor(NOTE_COLOR);
+            int mask = notes[cell];
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask) + 1;
+                mask &= mask - 1;
+                g.drawString(labels[d], x + noteX[d], y + noteY[d]);
+            }
+        }
+    }
+
+    private void paintVariantMarks(Graphics2D g, int cell, int x, int y) {
+        int row = cell / size, col = cell % size;
+        if (rules.hasWindoku() && inWindow(row) && inWindow(col)) {
+            g.setColor(WINDOW_TINT);
+            g.fillRect(x, y, cellSize, cellSize);
+        }
+        g.setColor(VARIANT_COLOR);
+        if (rules.hasDiagonals()) {
+            if (row == col) g.drawLine(x, y, x + cellSize, y + cellSize);
+            if (row + col == size - 1) g.drawLine(x + cellSize, y, x, y + cellSize);
+        }
+        int mark = Math.max(3, cellSize / 6);
+        int markX = x + cellSize - mark - 3, markY = y + 3;
+        if (rules.parity(cell) == VariantRules.ODD) g.drawOval(markX, markY, mark, mark);
+        if (rules.parity(cell) == VariantRules.EVEN) g.drawRect(markX, markY, mark, mark);
+        int edges = cageEdges[cell];
+        if (edges != 0) {
+            Stroke stroke = g.getStroke();
+            g.setStroke(CAGE_STROKE);
+            int inset = Math.max(2, cellSize / 12);
+            int left = x + ((edges & LEFT) != 0 ? inset : 0);
+            int right = x + cellSize - ((edges & RIGHT) != 0 ? inset : 0);
+            int top = y + ((edges & TOP) != 0 ? inset : 0);
+            int bottom = y + cellSize - ((edges & BOTTOM) != 0 ? inset : 0);
+            if ((edges & TOP) != 0) g.drawLine(left, top, right, top);
+            if ((edges & BOTTOM) != 0) g.drawLine(left, bottom, right, bottom);
+            if ((edges & LEFT) != 0) g.drawLine(left, top, left, bottom);
+            if ((edges & RIGHT) != 0) g.drawLine(right, top, right, bottom);
+            g.setStroke(stroke);
+        }
+        if (cageLabels[cell] != null) {
+            g.setFont(noteFont);
+            g.drawString(cageLabels[cell], x + 2, y + 2 + g.getFontMetrics().getAscent());
+        }
+    }
+
+    /** True for the rows or columns 1-3 and 5-7 that the windoku windows cover. */
+    private boolean inWindow(int index) {
+        return index % 4 != 0;
+    }
+
+    private void paintGrid(Graphics2D g) {
+        int extent = cellSize * size;
+        g.setColor(THIN_LINE);
+        for (int i = 1; i < size; i++) {
+            if (i % boxSize == 0) continue;
+            g.drawLine(originX + i * cellSize, originY, originX + i * cellSize, originY + extent);
+            g.drawLine(originX, originY + i * cellSize, originX + extent, originY + i * cellSize);
+        }
+        g.setColor(THICK_LINE);
+        for (int i = 0; i <= size; i += boxSize) {
+            int offset = i * cellSize - THICK_WIDTH / 2;
+            g.fillRect(originX + offset, originY - THICK_WIDTH / 2, THICK_WIDTH, extent + THICK_WIDTH);
+            g.fillRect(originX - THICK_WIDTH / 2, originY + offset, extent + THICK_WIDTH, THICK_WIDTH);
+        }
+    }
+}
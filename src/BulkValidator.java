@@ -0,0 +1,298 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless checker for third-party puzzle dumps: one puzzle per line, 81
+ * characters with '.' or '0' for blanks. Anything after the 81st character
+ * must be separated by a comma or whitespace and is ignored, so files
+ * written by {@code generate} can be checked too. Blank lines and lines
+ * starting with '#' are skipped.
+ *
+ * The file is streamed in fixed-size batches that are solved on a thread
+ * pool. Only a small window of batches is in flight at once and results are
+ * written in input order as soon as each batch finishes, so memory stays
+ * bounded however large the file is.
+ *
+ * Output is one line per puzzle: line number, status, and the solution for
+ * OK lines. Malformed lines are INVALID, including lines over
+ * {@value #MAX_LINE} bytes, which are skipped without being held in
+ * memory; givens that clash count as
+ * UNSOLVABLE. A summary with throughput goes to stderr; the exit status is 1
+ * if any line was flagged.
+ */
+public class BulkValidator {
+    private static final int BATCH_LINES = 4096;
+    private static final int BATCHES_PER_THREAD = 2;
+    // A valid line is at most two grids and a separator; longer ones are INVALID and not buffered
+    private static final int MAX_LINE = 4096;
+    private static final int CELLS = Puzzle.CELLS;
+
+    /** Outcome of one line. */
+    public enum Status { OK, INVALID, UNSOLVABLE, MULTIPLE }
+
+    private static final ThreadLocal<BitmaskSolver> SOLVER = ThreadLocal.withInitial(BitmaskSolver::new);
+
+    private final LongAdder[] counts = new LongAdder[Status.values().length];
+
+    public BulkValidator() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String inPath = null;
+        String outPath = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--out": outPath = args[++i]; break;
+                default: inPath = args[i];
+            }
+        }
+        if (inPath == null) {
+            System.err.println("Usage: validate <puzzles.txt | -> [--threads n] [--out file]");
+            System.exit(2);
+        }
+
+        BulkValidator validator = new BulkValidator();
+        InputStream in = inPath.equals("-") ? System.in : Files.newInputStream(Paths.get(inPath));
+        OutputStream stream = outPath == null
+                ? new FileOutputStream(FileDescriptor.out)
+                : Files.newOutputStream(Paths.get(outPath));
+        long start = System.nanoTime();
+        long bytes;
+        try (InputStream input = in;
+             Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.US_ASCII), 1 << 16)) {
+            bytes = validator.run(input, out, threads);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = validator.total();
+        System.err.printf("Checked %d puzzles in %.2fs (%.0f puzzles/s, %.1f MB/s, %d threads)%n",
+                total, seconds, total / seconds, bytes / seconds / 1e6, threads);
+        for (Status status : Status.values()) {
+            System.err.printf("  %-10s %d%n", status, validator.count(status));
+        }
+        if (Metrics.ENABLED) Metrics.dump(System.err);
+        if (total != validator.count(Status.OK)) System.exit(1);
+    }
+
+    /** Streams every line of {@code in} through the solvers; returns the bytes read. */
+    public long run(InputStream in, Writer out, int threads) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "validate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<StringBuilder>> inFlight = new ArrayDeque<>();
+        int window = threads * BATCHES_PER_THREAD;
+        LineReader reader = new LineReader(in);
+        try {
+            while (true) {
+                Batch batch = reader.next(BATCH_LINES);
+                if (batch == null) break;
+                inFlight.add(pool.submit(() -> check(batch)));
+                while (inFlight.size() >= window) {
+                    out.append(await(inFlight.poll()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                out.append(await(inFlight.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return reader.bytesRead;
+    }
+
+    public long count(Status status) {
+        return counts[status.ordinal()].sum();
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /** Classifies one puzzle, leaving its solution in {@code solution} when OK. */
+    public static Status check(int[] grid, int[] solution) {
+        switch (SOLVER.get().countSolutions(grid, 2, solution)) {
+            case 0: return Status.UNSOLVABLE;
+            case 1: return Status.OK;
+            default: return Status.MULTIPLE;
+        }
+    }
+
+    private StringBuilder check(Batch batch) {
+        StringBuilder sb = new StringBuilder(batch.size * (CELLS + 16));
+        int[] grid = new int[CELLS];
+        int[] solution = new int[CELLS];
+        for (int i = 0; i < batch.size; i++) {
+            Status status = parse(batch.data, batch.starts[i], batch.lengths[i], grid)
+                    ? check(grid, solution) : Status.INVALID;
+            counts[status.ordinal()].increment();
+            sb.append(batch.lineNumbers[i]).append(',').append(status).append(',');
+            if (status == Status.OK) Puzzle.appendGrid(sb, solution);
+            sb.append('\n');
+        }
+        return sb;
+    }
+
+    /** Reads 81 cells; false if the line is too short, has a bad character or trails garbage. */
+    private static boolean parse(byte[] data, int start, int length, int[] grid) {
+        if (length < CELLS) return false;
+        if (length > CELLS) {
+            byte separator = data[start + CELLS];
+            if (separator != ',' && separator != ' ' && separator != '\t' && separator != ';') return false;
+        }
+        for (int i = 0; i < CELLS; i++) {
+            byte ch = data[start + i];
+            if (ch >= '1' && ch <= '9') grid[i] = ch - '0';
+            else if (ch == '.' || ch == '0') grid[i] = 0;
+            else return false;
+        }
+        return true;
+    }
+
+    private static StringBuilder await(Future<StringBuilder> future) throws InterruptedException, IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Validation failed", e.getCause());
+        }
+    }
+
+    /** Lines copied out of the stream into one array, with their 1-based numbers. */
+    private static final class Batch {
+        byte[] data = new byte[1 << 16];
+        final int[] starts;
+        final int[] lengths;
+        final long[] lineNumbers;
+        int size;
+        int used;
+
+        Batch(int capacity) {
+            starts = new int[capacity];
+            lengths = new int[capacity];
+            lineNumbers = new long[capacity];
+        }
+
+        void add(byte[] src, int off, int len, long lineNumber) {
+            if (used + len > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, used + len));
+            }
+            System.arraycopy(src, off, data, used, len);
+            starts[size] = used;
+            lengths[size] = len;
+            lineNumbers[size] = lineNumber;
+            used += len;
+            size++;
+        }
+    }
+
+    /** Splits a byte stream into lines without decoding to Strings. */
+    private static final class LineReader {
+        private static final int END = -1;
+        private static final int TOO_LONG = -2;
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 20];
+        private int pos;
+        private int limit;
+        private boolean eof;
+        private long lineNumber;
+        long bytesRead;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /** Next batch of up to {@code max} puzzle lines, or null at end of input. */
+        Batch next(int max) throws IOException {
+            Batch batch = new Batch(max);
+            while (batch.size < max) {
+                int end = findLineEnd();
+                if (end == END) break;
+                lineNumber++;
+                if (end == TOO_LONG) {
+                    // An empty entry parses as INVALID
+                    skipLine();
+                    batch.add(buffer, pos, 0, lineNumber);
+                    continue;
+                }
+                int len = end - pos;
+                int next = end < limit ? end + 1 : end;
+                if (len > 0 && buffer[pos + len - 1] == '\r') len--;
+                while (len > 0 && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+                    pos++;
+                    len--;
+                }
+                if (len > 0 && buffer[pos] != '#') {
+                    batch.add(buffer, pos, len, lineNumber);
+                }
+                pos = next;
+            }
+            return batch.size == 0 ? null : batch;
+        }
+
+        /**
+         * Index of the '\n' ending the current line (or of the end of input),
+         * refilling as needed; {@link #END} at EOF, or {@link #TOO_LONG} if no
+         * line end comes within {@value BulkValidator#MAX_LINE} bytes.
+         */
+        private int findLineEnd() throws IOException {
+            int scanned = pos;
+            while (true) {
+                int stop = Math.min(limit, pos + MAX_LINE);
+                for (int i = scanned; i < stop; i++) {
+                    if (buffer[i] == '\n') return i;
+                }
+                if (stop - pos >= MAX_LINE) return TOO_LONG;
+                if (eof) return pos < limit ? limit : END;
+                scanned = stop - pos;
+                fill();
+                scanned += pos;
+            }
+        }
+
+        /** Discards the rest of an oversized line, up to and including its '\n'. */
+        private void skipLine() throws IOException {
+            while (true) {
+                for (int i = pos; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        pos = i + 1;
+                        return;
+                    }
+                }
+                pos = limit;
+                if (eof) return;
+                fill();
+            }
+        }
+
+        private void fill() throws IOException {
+            // Keep the partial line at the front; lines are capped well below the buffer size
+            int remaining = limit - pos;
+            if (pos > 0) {
+                System.arraycopy(buffer, pos, buffer, 0, remaining);
+            }
+            pos = 0;
+            limit = remaining;
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) eof = true;
+            else {
+                limit += n;
+                bytesRead += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Reduces a 9x9 grid (puzzle or solution) to a canonical representative of
+ * its equivalence class under the validity-preserving symmetries:
+ * transposition, permuting bands and the rows within each band, permuting
+ * stacks and the columns within each stack, and relabelling digits. Two
+ * grids are equivalent exactly when their canonical forms are equal.
+ *
+ * The canonical form is the lexicographically smallest transformed grid
+ * (blanks as 0) whose digits are numbered in order of first appearance.
+ * It is found by a branch-and-bound search that builds the output row by
+ * row and drops any branch whose prefix is already larger than the best
+ * found, so only a small fraction of the 3.3 million layouts is visited.
+ * An instance is not thread-safe.
+ */
+public class Canonicalizer {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private final int[] transposed = new int[CELLS];
+    private final int[] columns = new int[SIZE];
+    private final int[] current = new int[CELLS];
+    private final int[] best = new int[CELLS];
+    // Digit relabelling in effect after each output row
+    private final int[][] labels = new int[SIZE + 1][SIZE + 1];
+    private final int[] nextLabel = new int[SIZE + 1];
+    private final int[] scratch = new int[CELLS];
+    private boolean haveBest;
+    private long improvements;
+
+    /** Writes the canonical form of {@code grid} (0 = blank) into {@code out}. */
+    public void canonicalize(int[] grid, int[] out) {
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                transposed[c * SIZE + r] = grid[r * SIZE + c];
+            }
+        }
+        haveBest = false;
+        for (int[] g : new int[][] {grid, transposed}) {
+            for (int row = 0; row < SIZE; row++) {
+                chooseColumns(g, row, 0, 0, 0, false);
+            }
+        }
+        System.arraycopy(best, 0, out, 0, CELLS);
+    }
+
+    /** 64-bit hash of the canonical form: equal for equivalent grids. */
+    public long hash(int[] grid) {
+        canonicalize(grid, scratch);
+        return hashOf(scratch);
+    }
+
+    /** 64-bit hash of an already canonical grid. */
+    public static long hashOf(int[] canonical) {
+        long h = 0xCBF29CE484222325L;
+        for (int v : canonical) {
+            h = (h ^ v) * 0x100000001B3L;
+        }
+        // Final avalanche so nearby grids spread over the whole range
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Emits the first output row from source row {@code row}, choosing the
+     * column order one position at a time (stacks kept whole) so that column
+     * orders are pruned as soon as the row prefix exceeds the best one.
+     */
+    private void chooseColumns(int[] grid, int row, int position, int usedColumns, int next, boolean less) {
+        if (position == SIZE) {
+            nextLabel[1] = next;
+            search(grid, columns, 1, 1 << row, row, less);
+            return;
+        }
+        int firstStack, lastStack;
+        if (position % 3 == 0) {
+            firstStack = 0;
+            lastStack = 2;
+        } else {
+            firstStack = lastStack = columns[position - 1] / 3;
+        }
+        int[] rowLabels = labels[1];
+        for (int stack = firstStack; stack <= lastStack; stack++) {
+            if (position % 3 == 0 && (usedColumns >> (stack * 3) & 7) != 0) continue;
+            for (int col = stack * 3; col < stack * 3 + 3; col++) {
+                if ((usedColumns & (1 << col)) != 0) continue;
+                int digit = grid[row * SIZE + col];
+                boolean fresh = digit != 0 && rowLabels[digit] == 0;
+                if (fresh) rowLabels[digit] = next + 1;
+                int v = digit == 0 ? 0 : rowLabels[digit];
+                current[position] = v;
+
+                boolean cellLess = less || !haveBest;
+                if (cellLess || v <= best[position]) {
+                    if (v < best[position]) cellLess = true;
+                    columns[position] = col;
+                    long seen = improvements;
+                    chooseColumns(grid, row, position + 1, usedColumns | (1 << col),
+                            fresh ? next + 1 : next, cellLess && haveBest);
+                    // A new best shares this prefix, so from here on it only ties
+                    if (improvements != seen) less = false;
+                }
+                if (fresh) rowLabels[digit] = 0;
+            }
+        }
+    }
+
+    /**
+     * Emits output row {@code depth} from each allowed source row. {@code less}
+     * means the prefix written so far is already smaller than {@code best}.
+     */
+    private void search(int[] grid, int[] columns, int depth, int usedRows, int previous, boolean less) {
+        if (depth == SIZE) {
+            if (less || !haveBest) {
+                System.arraycopy(current, 0, best, 0, CELLS);
+                haveBest = true;
+                improvements++;
+            }
+            return;
+        }
+
+        int firstBand, lastBand;
+        if (depth % 3 == 0) {
+            firstBand = 0;
+            lastBand = 2;
+        } else {
+            firstBand = lastBand = previous / 3; // stay in the band being emitted
+        }
+        int base = depth * SIZE;
+        int[] before = labels[depth];
+        int[] after = labels[depth + 1];
+        for (int band = firstBand; band <= lastBand; band++) {
+            if (depth % 3 == 0 && (usedRows >> (band * 3) & 7) != 0) continue;
+            for (int row = band * 3; row < band * 3 + 3; row++) {
+                if ((usedRows & (1 << row)) != 0) continue;
+
+                System.arraycopy(before, 0, after, 0, SIZE + 1);
+                int next = nextLabel[depth];
+                boolean rowLess = less || !haveBest;
+                boolean pruned = false;
+                for (int c = 0; c < SIZE; c++) {
+                    int v = grid[row * SIZE + columns[c]];
+                    if (v != 0) {
+                        if (after[v] == 0) after[v] = ++next;
+                        v = after[v];
+                    }
+                    current[base + c] = v;
+                    if (!rowLess) {
+                        if (v > best[base + c]) {
+                            pruned = true;
+                            break;
+                        }
+                        if (v < best[base + c]) rowLess = true;
+                    }
+                }
+                if (pruned) continue;
+
+                nextLabel[depth + 1] = next;
+                long seen = improvements;
+                search(grid, columns, depth + 1, usedRows | (1 << row), row, rowLess && haveBest);
+                // A new best shares this prefix, so from here on it only ties
+                if (improvements != seen) less = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+/**
+ * Tracks placed values together with per-row, per-column and per-box digit
+ * counts so conflicts can be updated in constant time as cells change.
+ * {@link GameModel} reads the conflict flags and the win check from it.
+ */
+public class ConflictTracker {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+    private static final int[] ROW_OF = GEOMETRY.rowTable();
+    private static final int[] COL_OF = GEOMETRY.colTable();
+    private static final int[] BOX_OF = GEOMETRY.boxTable();
+    private static final int[][] PEERS = GEOMETRY.peerTable();
+
+    private final int[] values = new int[CELLS];
+    private final boolean[] conflict = new boolean[CELLS];
+    // Indexed by unit * (SIZE + 1) + digit
+    private final int[] rowCount = new int[SIZE * (SIZE + 1)];
+    private final int[] colCount = new int[SIZE * (SIZE + 1)];
+    private final int[] boxCount = new int[SIZE * (SIZE + 1)];
+    private int filled;
+    private int conflicts;
+
+    /** Empties every cell. */
+    public void clear() {
+        Arrays.fill(values, 0);
+        Arrays.fill(conflict, false);
+        Arrays.fill(rowCount, 0);
+        Arrays.fill(colCount, 0);
+        Arrays.fill(boxCount, 0);
+        filled = 0;
+        conflicts = 0;
+    }
+
+    /** Places {@code value} in a cell (0 clears it). */
+    public void set(int cell, int value) {
+        int old = values[cell];
+        if (old == value) return;
+
+        if (old != 0) {
+            adjust(cell, old, -1);
+            filled--;
+        }
+        values[cell] = value;
+        if (value != 0) {
+            adjust(cell, value, 1);
+            filled++;
+        }
+
+        // Only the cell itself and peers holding the old or new digit can flip
+        refresh(cell);
+        for (int peer : PEERS[cell]) {
+            int v = values[peer];
+            if (v != 0 && (v == old || v == value)) refresh(peer);
+        }
+    }
+
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    public boolean isConflict(int cell) {
+        return conflict[cell];
+    }
+
+    /** True once every cell holds a digit and no unit repeats one. */
+    public boolean isSolved() {
+        return filled == CELLS && conflicts == 0;
+    }
+
+    private void adjust(int cell, int digit, int delta) {
+        rowCount[ROW_OF[cell] * (SIZE + 1) + digit] += delta;
+        colCount[COL_OF[cell] * (SIZE + 1) + digit] += delta;
+        boxCount[BOX_OF[cell] * (SIZE + 1) + digit] += delta;
+    }
+
+    private void refresh(int cell) {
+        int v = values[cell];
+        boolean now = v != 0
+                && (rowCount[ROW_OF[cell] * (SIZE + 1) + v] > 1
+                    || colCount[COL_OF[cell] * (SIZE + 1) + v] > 1
+                    || boxCount[BOX_OF[cell] * (SIZE + 1) + v] > 1);
+        if (now != conflict[cell]) {
+            conflict[cell] = now;
+            conflicts += now ? 1 : -1;
+        }
+    }
+}
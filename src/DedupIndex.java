@@ -0,0 +1,44 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which puzzles have been seen, up to symmetry, by keeping only
+ * the 64-bit hash of each canonical form in a {@link LongHashSet}. Grids are
+ * never retained, so streaming millions of puzzles costs a few bytes per
+ * puzzle. Two different classes sharing a hash is possible but, at 64 bits,
+ * negligible for library-sized runs. Safe to share between threads; each
+ * thread brings its own {@link Canonicalizer}.
+ */
+public class DedupIndex {
+    private final LongHashSet seen;
+    private final AtomicLong duplicates = new AtomicLong();
+
+    public DedupIndex(int expected) {
+        seen = new LongHashSet(expected);
+    }
+
+    /** Returns true if the grid is new, false if an equivalent one was already added. */
+    public boolean add(int[] grid, Canonicalizer canonicalizer) {
+        return add(canonicalizer.hash(grid));
+    }
+
+    /** Like {@link #add(int[], Canonicalizer)} for a grid already hashed with {@link Canonicalizer#hash}. */
+    public boolean add(long hash) {
+        boolean added;
+        synchronized (seen) {
+            added = seen.add(hash);
+        }
+        if (!added) duplicates.incrementAndGet();
+        return added;
+    }
+
+    public int size() {
+        synchronized (seen) {
+            return seen.size();
+        }
+    }
+
+    /** Grids rejected as equivalent to an earlier one. */
+    public long duplicates() {
+        return duplicates.get();
+    }
+}
@@ -0,0 +1,21 @@
+import java.util.Locale;
+
+/**
+ * Difficulty bands, defined by the hardest solving technique a puzzle
+ * requires rather than by its clue count.
+ */
+public enum Difficulty {
+    /** Singles only. */
+    EASY,
+    /** Locked candidates and pairs. */
+    MEDIUM,
+    /** Triples and fish (X-Wing, Swordfish). */
+    HARD,
+    /** Not solvable by the supported techniques; needs trial and error. */
+    EXPERT;
+
+    /** Parses a case-insensitive band name such as "hard". */
+    public static Difficulty parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.Arrays;
+
+/**
+ * Exact-cover solver using Knuth's Dancing Links (Algorithm X). Sudoku maps
+ * to 324 constraint columns (cell, row-digit, column-digit, box-digit) and
+ * 729 candidate rows of four nodes each. All links live in preallocated int
+ * arrays that are restored from a template before every call, so solving
+ * does not allocate and is immune to the digit-order worst cases that hurt
+ * plain backtracking.
+ */
+public class DlxSolver implements SolverEngine {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+    private static final int COLUMNS = 4 * CELLS;
+    private static final int ROWS = CELLS * SIZE;
+    private static final int HEADERS = COLUMNS + 1; // index 0 is the root
+    private static final int NODES = HEADERS + ROWS * 4;
+
+    // Pristine link structure, copied into the working arrays per call
+    private static final int[] TEMPLATE_L = new int[NODES];
+    private static final int[] TEMPLATE_R = new int[NODES];
+    private static final int[] TEMPLATE_U = new int[NODES];
+    private static final int[] TEMPLATE_D = new int[NODES];
+    private static final int[] TEMPLATE_S = new int[HEADERS];
+    private static final int[] COL = new int[NODES];
+    private static final int[] ROW = new int[NODES];
+
+    static {
+        for (int h = 0; h < HEADERS; h++) {
+            TEMPLATE_L[h] = h == 0 ? COLUMNS : h - 1;
+            TEMPLATE_R[h] = h == COLUMNS ? 0 : h + 1;
+            TEMPLATE_U[h] = h;
+            TEMPLATE_D[h] = h;
+            COL[h] = h;
+        }
+        for (int row = 0; row < ROWS; row++) {
+            int cell = row / SIZE, d = row % SIZE;
+            int r = GEOMETRY.row(cell), c = GEOMETRY.col(cell), b = GEOMETRY.box(cell);
+            int[] columns = {
+                1 + cell,
+                1 + CELLS + r * SIZE + d,
+                1 + 2 * CELLS + c * SIZE + d,
+                1 + 3 * CELLS + b * SIZE + d,
+            };
+            int first = HEADERS + row * 4;
+            for (int k = 0; k < 4; k++) {
+                int n = first + k;
+                int col = columns[k];
+                TEMPLATE_L[n] = first + (k + 3) % 4;
+                TEMPLATE_R[n] = first + (k + 1) % 4;
+                TEMPLATE_U[n] = TEMPLATE_U[col];
+                TEMPLATE_D[n] = col;
+                TEMPLATE_D[TEMPLATE_U[col]] = n;
+                TEMPLATE_U[col] = n;
+                TEMPLATE_S[col]++;
+                COL[n] = col;
+                ROW[n] = row;
+            }
+        }
+    }
+
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    private final int[] size = new int[HEADERS];
+    private final boolean[] covered = new boolean[HEADERS];
+    private final int[] chosen = new int[CELLS];
+    private final int[] result = new int[CELLS];
+
+    private long nodes;
+    private long backtracks;
+    private int solutionLimit;
+    private int solutionCount;
+
+    @Override
+    public boolean solve(int[] grid) {
+        if (countSolutions(grid, 1) == 0) return false;
+        System.arraycopy(result, 0, grid, 0, CELLS);
+        return true;
+    }
+
+    @Override
+    public int countSolutions(int[] grid, int limit) {
+        nodes = 0;
+        backtracks = 0;
+        solutionLimit = limit;
+        solutionCount = 0;
+        if (!load(grid)) return 0;
+        SolveEvent event = Metrics.beginSolve();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        search(0);
+        if (Metrics.ENABLED) Metrics.solveFinished(start, nodes, backtracks);
+        Metrics.commitSolve(event, "dlx", CELLS, nodes, solutionCount);
+        return solutionCount;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /** Dead ends hit by the most recent search. */
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    private boolean load(int[] grid) {
+        System.arraycopy(TEMPLATE_L, 0, left, 0, NODES);
+        System.arraycopy(TEMPLATE_R, 0, right, 0, NODES);
+        System.arraycopy(TEMPLATE_U, 0, up, 0, NODES);
+        System.arraycopy(TEMPLATE_D, 0, down, 0, NODES);
+        System.arraycopy(TEMPLATE_S, 0, size, 0, HEADERS);
+        Arrays.fill(covered, false);
+
+        // Select the row of every given; a covered column means two givens clash
+        for (int cell = 0; cell < CELLS; cell++) {
+            int v = grid[cell];
+            result[cell] = v;
+            if (v == 0) continue;
+            if (v < 0 || v > SIZE) return false;
+            int first = HEADERS + (cell * SIZE + v - 1) * 4;
+            for (int k = 0; k < 4; k++) {
+                int col = COL[first + k];
+                if (covered[col]) return false;
+                cover(col);
+            }
+        }
+        return true;
+    }
+
+    private boolean search(int depth) {
+        nodes++;
+        if (right[0] == 0) {
+            if (++solutionCount == 1) {
+                for (int i = 0; i < depth; i++) {
+                    int row = chosen[i];
+                    result[row / SIZE] = row % SIZE + 1;
+                }
+            }
+            return solutionCount >= solutionLimit;
+        }
+
+        // Branch on the column with the fewest remaining rows
+        int col = right[0];
+        int best = size[col];
+        for (int h = right[col]; h != 0 && best > 1; h = right[h]) {
+            if (size[h] < best) {
+                best = size[h];
+                col = h;
+            }
+        }
+        if (best == 0) {
+            backtracks++;
+            return false;
+        }
+
+        cover(col);
+        for (int r = down[col]; r != col; r = down[r]) {
+            chosen[depth] = ROW[r];
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(COL[j]);
+            }
+            // On success the links are left dirty; load() resets them next call
+            if (search(depth + 1)) return true;
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(COL[j]);
+            }
+        }
+        uncover(col);
+        backtracks++;
+        return false;
+    }
+
+    private void cover(int col) {
+        covered[col] = true;
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[COL[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[COL[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+        covered[col] = false;
+    }
+}
@@ -0,0 +1,318 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The rules and state of one game, independent of any UI: placing values
+ * and notes, undo/redo, hints, error counting and the win check, under the puzzle's {@link VariantRules}. After
+ * every change the model publishes an immutable {@link GameState} to its
+ * listeners, and views render only from those states.
+ *
+ * Thread-safe: every operation locks the model, so many sessions can run
+ * side by side and a session can be driven from any thread. Listeners are
+ * called in order, on the thread that made the change and while the model
+ * is locked, so they must be quick and must not wait on other threads that
+ * use the same model.
+ */
+public class GameModel {
+    /** Receives the new state after every change. */
+    public interface Listener {
+        void gameChanged(GameState state);
+    }
+
+    private static final int CELLS = Puzzle.CELLS;
+    private static final int[] NO_CELLS = new int[0];
+
+    private final int[] givens = new int[CELLS];
+    private final int[] solution = new int[CELLS];
+    private final int[] values = new int[CELLS];
+    private final int[] notes = new int[CELLS];
+    private final boolean[] hinted = new boolean[CELLS];
+    // Pattern cells of the last elimination hint, shown until the next action
+    private int[] highlighted = NO_CELLS;
+    private final MoveHistory history = new MoveHistory();
+    private final ConflictTracker tracker = new ConflictTracker();
+    private final HintEngine hints = new HintEngine();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private int errors;
+    private int hintsUsed;
+    private int elapsedSeconds;
+    private String message;
+    private VariantRules rules = VariantRules.CLASSIC;
+    private boolean seeded;
+    private long seed;
+    private long version;
+    private volatile GameState state;
+
+    public GameModel() {
+        state = snapshot();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** The latest published state; never blocks. */
+    public GameState state() {
+        return state;
+    }
+
+    /** Starts a fresh game on {@code puzzle}. */
+    public synchronized void start(Puzzle puzzle) {
+        load(puzzle.givens(), puzzle.solution());
+        rules = puzzle.rules();
+        seeded = puzzle.hasSeed();
+        seed = seeded ? puzzle.seed() : 0;
+        errors = 0;
+        hintsUsed = 0;
+        elapsedSeconds = 0;
+        history.clear();
+        message = null;
+        publish();
+    }
+
+    /** Resumes a saved game; false if the save is inconsistent. */
+    public synchronized boolean restore(GameSnapshot saved) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int given = saved.givens[cell];
+            if (saved.solution[cell] == 0 || (given != 0 && given != saved.solution[cell])) {
+                return false;
+            }
+            // The trackers index by digit, so anything out of range would throw later
+            if (saved.values[cell] < 0 || saved.values[cell] > 9) return false;
+        }
+        for (long move : saved.moves) {
+            int cell = MoveHistory.cell(move);
+            if (cell >= CELLS || saved.givens[cell] != 0) return false;
+        }
+        if (!saved.rules.isSolution(saved.solution)) return false;
+        load(saved.givens, saved.solution);
+        rules = saved.rules;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (givens[cell] == 0) applyCell(cell, saved.values[cell], saved.notes[cell], false);
+        }
+        errors = saved.errors;
+        hintsUsed = saved.hintsUsed;
+        elapsedSeconds = saved.elapsedSeconds;
+        history.restore(saved.moves, saved.moveCursor);
+        seeded = saved.seeded;
+        seed = saved.seed;
+        message = null;
+        publish();
+        return true;
+    }
+
+    /** Everything needed to resume this game later. */
+    public synchronized GameSnapshot save() {
+        return new GameSnapshot(givens.clone(), solution.clone(), values.clone(), notes.clone(),
+                errors, hintsUsed, elapsedSeconds, history.toArray(), history.position(), seeded, seed, rules);
+    }
+
+    /** Places a digit, counting an error if it is wrong; returns whether it was correct. */
+    public synchronized boolean place(int cell, int digit) {
+        checkEditable(cell);
+        highlighted = NO_CELLS;
+        message = null;
+        boolean error = solution[cell] != digit;
+        history.record(MoveHistory.pack(cell, values[cell], digit, notes[cell], 0, error, false));
+        applyCell(cell, digit, 0, false);
+        if (error) errors++;
+        publish();
+        return !error;
+    }
+
+    /** Toggles a pencil mark, clearing any value in the cell. */
+    public synchronized void toggleNote(int cell, int digit) {
+        checkEditable(cell);
+        highlighted = NO_CELLS;
+        message = null;
+        int newNotes = notes[cell] ^ (1 << (digit - 1));
+        history.record(MoveHistory.pack(cell, values[cell], 0, notes[cell], newNotes, false, false));
+        applyCell(cell, 0, newNotes, false);
+        publish();
+    }
+
+    /** Empties a cell; false if it was already empty. */
+    public synchronized boolean clear(int cell) {
+        checkEditable(cell);
+        if (values[cell] == 0 && notes[cell] == 0) return false;
+        highlighted = NO_CELLS;
+        message = null;
+        history.record(MoveHistory.pack(cell, values[cell], 0, notes[cell], 0, false, false));
+        applyCell(cell, 0, 0, false);
+        publish();
+        return true;
+    }
+
+    public synchronized boolean undo() {
+        if (!history.canUndo()) return false;
+        highlighted = NO_CELLS;
+        message = null;
+        long move;
+        do {
+            move = history.undo();
+            applyCell(MoveHistory.cell(move), MoveHistory.oldValue(move), MoveHistory.oldNotes(move), false);
+            if (MoveHistory.isError(move)) errors--;
+            if (MoveHistory.isHint(move)) hintsUsed--;
+        } while (MoveHistory.isLinked(move) && history.canUndo());
+        publish();
+        return true;
+    }
+
+    public synchronized boolean redo() {
+        if (!history.canRedo()) return false;
+        highlighted = NO_CELLS;
+        message = null;
+        do {
+            long move = history.redo();
+            // Only placements show as hinted; linked note edits of an elimination hint do not
+            boolean placedByHint = MoveHistory.isHint(move) && MoveHistory.newValue(move) != 0;
+            applyCell(MoveHistory.cell(move), MoveHistory.newValue(move), MoveHistory.newNotes(move),
+                    placedByHint);
+            if (MoveHistory.isError(move)) errors++;
+            if (MoveHistory.isHint(move)) hintsUsed++;
+        } while (history.redoIsLinked());
+        publish();
+        return true;
+    }
+
+    /**
+     * Applies the next logical hint: places its digit, or highlights its
+     * pattern and strips the eliminated digits from the notes. Returns null
+     * without using a hint if a wrong entry must be cleared first or the
+     * board is full.
+     */
+    public synchronized HintEngine.Hint hint() {
+        highlighted = NO_CELLS;
+        // Logic only works from correct values, so point out a mistake first
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (values[cell] != 0 && values[cell] != solution[cell]) {
+                message = HintEngine.cellName(cell) + " is not correct - clear it first";
+                publish();
+                return null;
+            }
+        }
+
+        HintEngine.Hint hint = hints.next();
+        if (hint == null) return null;
+        message = hint.describe();
+        hintsUsed++;
+        if (hint.isPlacement()) {
+            int cell = hint.cell();
+            history.record(MoveHistory.pack(cell, values[cell], hint.digit(), notes[cell], 0, false, true));
+            applyCell(cell, hint.digit(), 0, true);
+        } else {
+            hints.apply(hint);
+            highlighted = hint.cells();
+            // One linked history entry per cell touched, so a single undo restores the notes
+            boolean first = true;
+            for (int cell = 0; cell < CELLS; cell++) {
+                int newNotes = notes[cell] & ~hint.eliminated(cell);
+                if (hint.eliminated(cell) == 0 || (newNotes == notes[cell] && !first)) continue;
+                long move = MoveHistory.pack(cell, 0, 0, notes[cell], newNotes, false, first);
+                history.record(first ? move : MoveHistory.link(move));
+                notes[cell] = newNotes;
+                first = false;
+            }
+        }
+        publish();
+        return hint;
+    }
+
+    /** Clears every entry and the counters, keeping the puzzle. */
+    public synchronized void reset() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (givens[cell] == 0) applyCell(cell, 0, 0, false);
+        }
+        highlighted = NO_CELLS;
+        message = null;
+        errors = 0;
+        hintsUsed = 0;
+        elapsedSeconds = 0;
+        history.clear();
+        publish();
+    }
+
+    /** Advances the game clock by a second; returns the new elapsed time. Publishes nothing. */
+    public synchronized int tick() {
+        return ++elapsedSeconds;
+    }
+
+    public synchronized int elapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    private void checkEditable(int cell) {
+        if (givens[cell] != 0) {
+            throw new IllegalArgumentException(HintEngine.cellName(cell) + " is a given");
+        }
+    }
+
+    private void load(int[] newGivens, int[] newSolution) {
+        System.arraycopy(newGivens, 0, givens, 0, CELLS);
+        System.arraycopy(newSolution, 0, solution, 0, CELLS);
+        tracker.clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            values[cell] = givens[cell];
+            notes[cell] = 0;
+            hinted[cell] = false;
+            tracker.set(cell, givens[cell]);
+        }
+        highlighted = NO_CELLS;
+        hints.load(givens, solution);
+    }
+
+    /** Sets a value (or, when it is 0, the given notes) and updates the trackers. */
+    private void applyCell(int cell, int value, int cellNotes, boolean byHint) {
+        values[cell] = value;
+        notes[cell] = value == 0 ? cellNotes : 0;
+        hinted[cell] = byHint;
+        // The hint engine only reasons from correct values
+        hints.set(cell, value == solution[cell] ? value : 0);
+        tracker.set(cell, value);
+    }
+
+    private void publish() {
+        version++;
+        state = snapshot();
+        for (Listener listener : listeners) {
+            listener.gameChanged(state);
+        }
+    }
+
+    private GameState snapshot() {
+        int[] flags = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            int f = givens[cell] != 0 ? GameState.GIVEN : 0;
+            if (tracker.isConflict(cell) || variantConflict(cell)) f |= GameState.CONFLICT;
+            if (values[cell] != 0 && values[cell] != solution[cell]) f |= GameState.WRONG;
+            if (hinted[cell]) f |= GameState.HINTED;
+            flags[cell] = f;
+        }
+        for (int cell : highlighted) {
+            if (values[cell] == 0) flags[cell] |= GameState.HIGHLIGHTED;
+        }
+        boolean solved = tracker.isSolved() && (rules.isClassic() || rules.isSolution(values));
+        return new GameState(version, values.clone(), notes.clone(), flags, errors, hintsUsed, solved,
+                history.canUndo(), history.canRedo(), message, seeded, seed, rules);
+    }
+
+    /**
+     * True if the cell breaks a variant rule the tracker does not know: it
+     * has the wrong parity, repeats a digit in an extra unit, or sits in a
+     * cage whose digits can no longer reach its sum.
+     */
+    private boolean variantConflict(int cell) {
+        int value = values[cell];
+        if (value == 0 || rules.isClassic()) return false;
+        if ((rules.allowed(cell) & (1 << (value - 1))) == 0) return true;
+        for (int peer : rules.peers(cell)) {
+            if (values[peer] == value) return true;
+        }
+        int k = rules.cageOf(cell);
+        return k >= 0 && !rules.isCageReachable(values, k);
+    }
+}
@@ -0,0 +1,132 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Everything needed to resume a game, in a compact binary form: givens,
+ * solution and current values packed at 4 bits per cell, note masks,
+ * counters, the timer, the undo/redo log, the puzzle's seed if it has one
+ * and its variant rules.
+ */
+public final class GameSnapshot {
+    private static final int MAGIC = 0x53444B53; // "SDKS"
+    // Version 2 appends the seed and version 3 the rules; older saves still load as classic games
+    private static final int VERSION = 3;
+    private static final int CELLS = Puzzle.CELLS;
+
+    final int[] givens;
+    final int[] solution;
+    final int[] values;
+    final int[] notes;
+    final int errors;
+    final int hintsUsed;
+    final int elapsedSeconds;
+    final long[] moves;
+    final int moveCursor;
+    final boolean seeded;
+    final long seed;
+    final VariantRules rules;
+
+    public GameSnapshot(int[] givens, int[] solution, int[] values, int[] notes,
+                        int errors, int hintsUsed, int elapsedSeconds, long[] moves, int moveCursor,
+                        boolean seeded, long seed, VariantRules rules) {
+        this.givens = givens;
+        this.solution = solution;
+        this.values = values;
+        this.notes = notes;
+        this.errors = errors;
+        this.hintsUsed = hintsUsed;
+        this.elapsedSeconds = elapsedSeconds;
+        this.moves = moves;
+        this.moveCursor = moveCursor;
+        this.seeded = seeded;
+        this.seed = seed;
+        this.rules = rules;
+    }
+
+    public byte[] encode() {
+        byte[] ruleText = rules.toString().getBytes(StandardCharsets.US_ASCII);
+        int length = 8 + 3 * PuzzleCodec.PACKED_SIZE + 2 * CELLS + 5 * 4 + moves.length * 8 + 1 + 8
+                + 4 + ruleText.length;
+        byte[] data = new byte[length];
+        ByteBuffer out = ByteBuffer.wrap(data);
+        out.putInt(MAGIC).putInt(VERSION);
+        for (int[] grid : new int[][] {givens, solution, values}) {
+            PuzzleCodec.encode(grid, data, out.position());
+            out.position(out.position() + PuzzleCodec.PACKED_SIZE);
+        }
+        for (int mask : notes) {
+            out.putShort((short) mask);
+        }
+        out.putInt(errors).putInt(hintsUsed).putInt(elapsedSeconds);
+        out.putInt(moves.length).putInt(moveCursor);
+        for (long move : moves) {
+            out.putLong(move);
+        }
+        out.put((byte) (seeded ? 1 : 0)).putLong(seed);
+        out.putInt(ruleText.length).put(ruleText);
+        return data;
+    }
+
+    /** Decodes a snapshot; throws IllegalArgumentException if the data is not one. */
+    public static GameSnapshot decode(byte[] data) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            int version = in.getInt() == MAGIC ? in.getInt() : -1;
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Not a saved game");
+            }
+            int[][] grids = new int[3][CELLS];
+            for (int[] grid : grids) {
+                PuzzleCodec.decode(data, in.position(), grid);
+                in.position(in.position() + PuzzleCodec.PACKED_SIZE);
+            }
+            // Nibbles go up to 15, and the trackers index by digit
+            for (int cell = 0; cell < CELLS; cell++) {
+                int given = grids[0][cell];
+                if (given > 9 || grids[1][cell] > 9 || grids[2][cell] > 9
+                        || (given != 0 && grids[2][cell] != given)) {
+                    throw new IllegalArgumentException("Corrupt cell " + cell);
+                }
+            }
+            int[] notes = new int[CELLS];
+            for (int i = 0; i < CELLS; i++) {
+                notes[i] = in.getShort() & 0x1FF;
+            }
+            int errors = in.getInt();
+            int hintsUsed = in.getInt();
+            int elapsedSeconds = in.getInt();
+            int moveCount = in.getInt();
+            int moveCursor = in.getInt();
+            if (moveCount < 0 || moveCursor < 0 || moveCursor > moveCount || moveCount > in.remaining() / 8) {
+                throw new IllegalArgumentException("Corrupt move log");
+            }
+            long[] moves = new long[moveCount];
+            for (int i = 0; i < moveCount; i++) {
+                long move = in.getLong();
+                int cell = MoveHistory.cell(move);
+                if (cell >= CELLS || grids[0][cell] != 0
+                        || MoveHistory.oldValue(move) > 9 || MoveHistory.newValue(move) > 9) {
+                    throw new IllegalArgumentException("Corrupt move " + i);
+                }
+                moves[i] = move;
+            }
+            boolean seeded = version >= 2 && in.get() != 0;
+            long seed = version >= 2 ? in.getLong() : 0;
+            VariantRules rules = VariantRules.CLASSIC;
+            if (version >= 3) {
+                int ruleLength = in.getInt();
+                if (ruleLength < 0 || ruleLength > in.remaining()) {
+                    throw new IllegalArgumentException("Corrupt rules");
+                }
+                byte[] ruleText = new byte[ruleLength];
+                in.get(ruleText);
+                rules = VariantRules.parse(new String(ruleText, StandardCharsets.US_ASCII));
+            }
+            return new GameSnapshot(grids[0], grids[1], grids[2], notes,
+                    errors, hintsUsed, elapsedSeconds, moves, moveCursor, seeded, seed, rules);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated saved game", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Immutable view of a game at one moment, published by {@link GameModel}
+ * after every change. Per-cell flags say how a cell should be shown, so a
+ * view can render a state without asking the model anything.
+ */
+public final class GameState {
+    static final int GIVEN = 1;
+    static final int CONFLICT = 2;
+    static final int WRONG = 4;
+    static final int HINTED = 8;
+    static final int HIGHLIGHTED = 16;
+
+    private final long version;
+    private final int[] values;
+    private final int[] notes;
+    private final int[] flags;
+    private final int errors;
+    private final int hintsUsed;
+    private final boolean solved;
+    private final boolean canUndo;
+    private final boolean canRedo;
+    private final String message;
+    private final boolean seeded;
+    private final long seed;
+    private final VariantRules rules;
+
+    /** Takes ownership of the arrays; the model passes fresh copies. */
+    GameState(long version, int[] values, int[] notes, int[] flags, int errors, int hintsUsed, boolean solved,
+              boolean canUndo, boolean canRedo, String message, boolean seeded, long seed, VariantRules rules) {
+        this.version = version;
+        this.values = values;
+        this.notes = notes;
+        this.flags = flags;
+        this.errors = errors;
+        this.hintsUsed = hintsUsed;
+        this.solved = solved;
+        this.canUndo = canUndo;
+        this.canRedo = canRedo;
+        this.message = message;
+        this.seeded = seeded;
+        this.seed = seed;
+        this.rules = rules;
+    }
+
+    /** Increases with every change to the model that published it. */
+    public long version() {
+        return version;
+    }
+
+    /** The value shown in a cell, right or wrong; 0 if empty. */
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    /** Pencil marks of an empty cell as a 9-bit mask. */
+    public int notes(int cell) {
+        return notes[cell];
+    }
+
+    public boolean isGiven(int cell) {
+        return (flags[cell] & GIVEN) != 0;
+    }
+
+    /** True if the cell's value clashes with a peer. */
+    public boolean isConflict(int cell) {
+        return (flags[cell] & CONFLICT) != 0;
+    }
+
+    /** True if the cell holds a value that differs from the solution. */
+    public boolean isWrong(int cell) {
+        return (flags[cell] & WRONG) != 0;
+    }
+
+    /** True if the cell's value was placed by a hint. */
+    public boolean isHinted(int cell) {
+        return (flags[cell] & HINTED) != 0;
+    }
+
+    /** True if the cell is part of the pattern of the last elimination hint. */
+    public boolean isHighlighted(int cell) {
+        return (flags[cell] & HIGHLIGHTED) != 0;
+    }
+
+    public int errors() {
+        return errors;
+    }
+
+    public int hintsUsed() {
+        return hintsUsed;
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public boolean canUndo() {
+        return canUndo;
+    }
+
+    public boolean canRedo() {
+        return canRedo;
+    }
+
+    /** Explanation of the last hint, or null. */
+    public String message() {
+        return message;
+    }
+
+    public boolean hasSeed() {
+        return seeded;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /** The rules of the puzzle being played, for drawing cages and other variant marks. */
+    public VariantRules rules() {
+        return rules;
+    }
+}
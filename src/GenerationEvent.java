@@ -0,0 +1,23 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event spanning the generation of one puzzle. */
+@Name("sudoku.Generation")
+@Label("Sudoku Generation")
+@Category("Sudoku")
+@Description("Generating one unique puzzle, including any rejected attempts")
+@StackTrace(false)
+class GenerationEvent extends jdk.jfr.Event {
+    @Label("Difficulty")
+    @Description("Requested band, or empty when digging to a blank count")
+    String difficulty;
+
+    @Label("Clues")
+    int clues;
+
+    @Label("Attempts")
+    int attempts;
+}
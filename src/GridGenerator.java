@@ -0,0 +1,145 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Puzzle generator for any {@link BoardGeometry}, e.g. 16x16 and 25x25.
+ *
+ * Plain backtracking does not scale to those sizes, so both phases are
+ * bounded. Solutions come from a randomized search with a node budget,
+ * falling back to a shuffled pattern grid if the search stalls. Digging
+ * only keeps a removal when a budgeted uniqueness check proves the grid is
+ * still unique; an undecided check keeps the clue. Large puzzles therefore
+ * end up with somewhat more clues than a minimal puzzle, but generation
+ * takes seconds instead of minutes.
+ */
+public class GridGenerator {
+    private static final int FILL_ATTEMPTS = 4;
+
+    private final BoardGeometry geometry;
+    private final RandomGenerator random;
+    private final GridSolver solver;
+    private final int[] order;
+    private final long fillBudget;
+    private final long checkBudget;
+
+    public GridGenerator(BoardGeometry geometry, RandomGenerator random) {
+        this.geometry = geometry;
+        this.random = random;
+        this.solver = new GridSolver(geometry);
+        this.order = new int[geometry.cells];
+        this.fillBudget = 8L * geometry.cells;
+        this.checkBudget = 40L * geometry.cells;
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /** Generates a unique puzzle with up to {@code cellsToRemove} blanks into {@code givens} and {@code solution}. */
+    public int generate(int cellsToRemove, int[] givens, int[] solution) {
+        GenerationEvent event = Metrics.beginGeneration();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        generateSolution(solution);
+        System.arraycopy(solution, 0, givens, 0, geometry.cells);
+        int removed = removeCells(givens, cellsToRemove);
+        Metrics.generationFinished(event, start, null, geometry.cells - removed, 1);
+        return removed;
+    }
+
+    /** Fills the grid with a random complete solution. */
+    public void generateSolution(int[] grid) {
+        solver.setNodeLimit(fillBudget);
+        solver.setRandom(random);
+        try {
+            for (int attempt = 0; attempt < FILL_ATTEMPTS; attempt++) {
+                Arrays.fill(grid, 0);
+                if (solver.solve(grid)) return;
+            }
+        } finally {
+            solver.setRandom(null);
+        }
+        fillFromPattern(grid);
+    }
+
+    /**
+     * Blanks cells of a uniquely solvable grid in random order, skipping any
+     * removal that would allow a second solution or that the budgeted check
+     * cannot decide. Returns the number removed.
+     */
+    public int removeCells(int[] grid, int cellsToRemove) {
+        int cells = geometry.cells;
+        for (int i = 0; i < cells; i++) {
+            order[i] = i;
+        }
+        shuffle(order, cells);
+
+        solver.setNodeLimit(checkBudget);
+        int removed = 0;
+        for (int i = 0; i < cells && removed < cellsToRemove; i++) {
+            int cell = order[i];
+            int value = grid[cell];
+            if (value == 0) continue;
+            grid[cell] = 0;
+            if (solver.countSolutions(grid, 2) == 1) {
+                removed++;
+            } else {
+                grid[cell] = value;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * The standard shifted-row pattern, with digits relabelled and rows,
+     * bands, columns and stacks permuted. Always valid, so it backs up the
+     * randomized fill.
+     */
+    private void fillFromPattern(int[] grid) {
+        int n = geometry.boxSize, size = geometry.size;
+        int[] digits = new int[size];
+        int[] rows = permutedLines();
+        int[] cols = permutedLines();
+        for (int d = 0; d < size; d++) {
+            digits[d] = d + 1;
+        }
+        shuffle(digits, size);
+        for (int r = 0; r < size; r++) {
+            int pr = rows[r];
+            for (int c = 0; c < size; c++) {
+                int pc = cols[c];
+                grid[r * size + c] = digits[(n * (pr % n) + pr / n + pc) % size];
+            }
+        }
+    }
+
+    /** A line order that keeps lines inside their band: bands and lines within bands are shuffled. */
+    private int[] permutedLines() {
+        int n = geometry.boxSize;
+        int[] bands = new int[n];
+        int[] within = new int[n];
+        int[] lines = new int[geometry.size];
+        for (int i = 0; i < n; i++) {
+            bands[i] = i;
+        }
+        shuffle(bands, n);
+        for (int b = 0; b < n; b++) {
+            for (int i = 0; i < n; i++) {
+                within[i] = i;
+            }
+            shuffle(within, n);
+            for (int i = 0; i < n; i++) {
+                lines[b * n + i] = bands[b] * n + within[i];
+            }
+        }
+        return lines;
+    }
+
+    private void shuffle(int[] a, int n) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@link BitmaskSolver} generalized to any {@link BoardGeometry}: row, column
+ * and box candidate masks with most-constrained-cell branching. The 9x9
+ * game keeps using BitmaskSolver, whose constant-sized tables are faster.
+ *
+ * Searches can be capped with a node limit so that uniqueness checks on
+ * large, sparse boards give up instead of running for minutes. An instance
+ * is not thread-safe.
+ */
+public class GridSolver implements SolverEngine {
+    private final BoardGeometry geometry;
+    private final int size;
+    private final int cellCount;
+
+    // Search state
+    private final int[] cells;
+    private final int[] rowUsed;
+    private final int[] colUsed;
+    private final int[] boxUsed;
+    private final int[] empties;
+    private final int[] digitOrder;
+    private int emptyCount;
+
+    private RandomGenerator random;
+    private long nodeLimit = Long.MAX_VALUE;
+    private boolean aborted;
+    private long nodes;
+    private long backtracks;
+    private int solutionLimit;
+    private int solutionCount;
+
+    public GridSolver(BoardGeometry geometry) {
+        this(geometry, null);
+    }
+
+    /**
+     * @param random source used to shuffle candidate order, or null to always
+     *               try digits in ascending order
+     */
+    public GridSolver(BoardGeometry geometry, RandomGenerator random) {
+        this.geometry = geometry;
+        this.size = geometry.size;
+        this.cellCount = geometry.cells;
+        this.random = random;
+        cells = new int[cellCount];
+        rowUsed = new int[size];
+        colUsed = new int[size];
+        boxUsed = new int[size];
+        empties = new int[cellCount];
+        digitOrder = new int[cellCount * size];
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /** Caps the nodes a single solve or count may visit; see {@link #wasAborted()}. */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /** True if the last search stopped because it hit the node limit. */
+    public boolean wasAborted() {
+        return aborted;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /** Dead ends hit by the most recent search. */
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    @Override
+    public boolean solve(int[] grid) {
+        if (!load(grid)) return false;
+        if (!run(1) || aborted) return false;
+        System.arraycopy(cells, 0, grid, 0, cellCount);
+        return true;
+    }
+
+    /**
+     * Counts solutions up to {@code limit}. If the node limit is hit first the
+     * search gives up and reports {@code limit}, so callers checking
+     * uniqueness treat an undecided grid as not unique.
+     */
+    @Override
+    public int countSolutions(int[] grid, int limit) {
+        if (!load(grid)) return 0;
+        run(limit);
+        return aborted ? limit : solutionCount;
+    }
+
+    private boolean load(int[] grid) {
+        if (grid.length != cellCount) {
+            throw new IllegalArgumentException("Expected " + cellCount + " cells, got " + grid.length);
+        }
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        emptyCount = 0;
+        for (int i = 0; i < cellCount; i++) {
+            int v = grid[i];
+            cells[i] = v;
+            if (v == 0) {
+                empties[emptyCount++] = i;
+                continue;
+            }
+            if (v < 0 || v > size) return false;
+            int bit = 1 << (v - 1);
+            int r = geometry.row(i), c = geometry.col(i), b = geometry.box(i);
+            if (((rowUsed[r] | colUsed[c] | boxUsed[b]) & bit) != 0) return false;
+            rowUsed[r] |= bit;
+            colUsed[c] |= bit;
+            boxUsed[b] |= bit;
+        }
+        return true;
+    }
+
+    private boolean run(int limit) {
+        nodes = 0;
+        backtracks = 0;
+        aborted = false;
+        solutionLimit = limit;
+        solutionCount = 0;
+        SolveEvent event = Metrics.beginSolve();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        boolean stopped = search(0);
+        if (Metrics.ENABLED) Metrics.solveFinished(start, nodes, backtracks);
+        Metrics.commitSolve(event, "grid", cellCount, nodes, solutionCount);
+        return stopped;
+    }
+
+    private int candidates(int cell) {
+        return ~(rowUsed[geometry.row(cell)] | colUsed[geometry.col(cell)] | boxUsed[geometry.box(cell)])
+                & geometry.allDigits;
+    }
+
+    private boolean search(int depth) {
+        if (++nodes > nodeLimit) {
+            aborted = true;
+            return true; // unwind
+        }
+        if (depth == emptyCount) {
+            // In counting mode keep going until the limit is reached
+            return ++solutionCount >= solutionLimit;
+        }
+
+        // Pick the empty cell with the fewest candidates and move it to 'depth'
+        int best = depth;
+        int bestCount = size + 1;
+        for (int i = depth; i < emptyCount; i++) {
+            int count = Integer.bitCount(candidates(empties[i]));
+            if (count < bestCount) {
+                bestCount = count;
+                best = i;
+                if (count <= 1) break;
+            }
+        }
+        if (bestCount == 0) {
+            backtracks++;
+            return false;
+        }
+
+        int cell = empties[best];
+        empties[best] = empties[depth];
+        empties[depth] = cell;
+
+        int r = geometry.row(cell), c = geometry.col(cell), b = geometry.box(cell);
+        int mask = candidates(cell);
+        int base = depth * size;
+        int n = 0;
+        while (mask != 0) {
+            int bit = mask & -mask;
+            mask ^= bit;
+            digitOrder[base + n++] = bit;
+        }
+        if (random != null) {
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = digitOrder[base + i];
+                digitOrder[base + i] = digitOrder[base + j];
+                digitOrder[base + j] = t;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            int bit = digitOrder[base + i];
+            cells[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+            rowUsed[r] |= bit;
+            colUsed[c] |= bit;
+            boxUsed[b] |= bit;
+            if (search(depth + 1)) return true;
+            rowUsed[r] ^= bit;
+            colUsed[c] ^= bit;
+            boxUsed[b] ^= bit;
+        }
+        cells[cell] = 0;
+        backtracks++;
+        return false;
+    }
+}
@@ -0,0 +1,264 @@
+import java.util.Arrays;
+
+/**
+ * Finds the easiest logical deduction in the current position and explains
+ * it. The candidate grid is maintained incrementally: every {@link #set}
+ * updates per-unit digit counts and re-derives only the changed cell and
+ * its 20 peers, so asking for a hint costs one {@link LogicalSolver} step
+ * on a copied grid rather than a solve from scratch.
+ *
+ * Only correct values should be fed in; the engine reasons from them and
+ * never from the solution, except as a last resort when no known technique
+ * applies. An instance is not thread-safe.
+ */
+public class HintEngine {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int ALL_DIGITS = (1 << SIZE) - 1;
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+
+    private final int[] values = new int[CELLS];
+    private final int[] solution = new int[CELLS];
+    private final int[] candidates = new int[CELLS];
+    // Candidates removed by applied elimination hints; they stay valid as only correct values are set
+    private final int[] struck = new int[CELLS];
+    // Per unit: how many cells hold each digit, and the mask of digits present
+    private final int[] digitCounts = new int[3 * SIZE * (SIZE + 1)];
+    private final int[] unitDigits = new int[3 * SIZE];
+    private final LogicalSolver solver = new LogicalSolver();
+
+    /** Starts a new puzzle from its givens and solution. */
+    public void load(int[] givens, int[] solution) {
+        System.arraycopy(solution, 0, this.solution, 0, CELLS);
+        Arrays.fill(values, 0);
+        Arrays.fill(struck, 0);
+        Arrays.fill(digitCounts, 0);
+        Arrays.fill(unitDigits, 0);
+        for (int cell = 0; cell < CELLS; cell++) {
+            values[cell] = givens[cell];
+            if (givens[cell] != 0) count(cell, givens[cell], 1);
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            candidates[cell] = derive(cell);
+        }
+    }
+
+    /** Records a cell change (0 clears it). */
+    public void set(int cell, int value) {
+        int old = values[cell];
+        if (old == value) return;
+        if (old != 0) count(cell, old, -1);
+        if (value != 0) count(cell, value, 1);
+        values[cell] = value;
+        candidates[cell] = derive(cell);
+        for (int peer : GEOMETRY.peers(cell)) {
+            candidates[peer] = derive(peer);
+        }
+    }
+
+    /**
+     * Accepts a hint: places its digit, or strikes its eliminated candidates
+     * so that the next hint moves on to a new deduction.
+     */
+    public void apply(Hint hint) {
+        if (hint.isPlacement()) {
+            set(hint.cell(), hint.digit());
+            return;
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (hint.eliminated(cell) != 0) {
+                struck[cell] |= hint.eliminated(cell);
+                candidates[cell] = derive(cell);
+            }
+        }
+    }
+
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    /** Digits still possible in a cell as a 9-bit mask; 0 for filled cells. */
+    public int candidates(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * The easiest deduction available, or null if the board is full. When
+     * no known technique applies, the hint reveals the most constrained cell
+     * from the solution instead.
+     */
+    public Hint next() {
+        solver.load(values, candidates);
+        Technique technique = solver.step();
+        if (technique == null) {
+            return reveal();
+        }
+
+        int[] cells = new int[solver.stepCellCount()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = solver.stepCell(i);
+        }
+        if (solver.stepEliminations() == 0) {
+            int cell = cells[0];
+            return new Hint(technique, cells, solver.stepDigits(), cell, solver.value(cell),
+                    singleUnit(technique, cell, solver.value(cell)), new int[CELLS]);
+        }
+        int[] eliminated = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            eliminated[cell] = candidates[cell] & ~solver.candidates(cell);
+        }
+        return new Hint(technique, cells, solver.stepDigits(), -1, 0, null, eliminated);
+    }
+
+    private Hint reveal() {
+        int best = -1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (values[cell] == 0 && (best < 0
+                    || Integer.bitCount(candidates[cell]) < Integer.bitCount(candidates[best]))) {
+                best = cell;
+            }
+        }
+        if (best < 0) return null;
+        int digit = solution[best];
+        return new Hint(null, new int[] {best}, 1 << (digit - 1), best, digit, null, new int[CELLS]);
+    }
+
+    /** Names the unit in which a hidden single's digit has only one place. */
+    private String singleUnit(Technique technique, int cell, int digit) {
+        if (technique != Technique.HIDDEN_SINGLE) return null;
+        int bit = 1 << (digit - 1);
+        int[] units = {GEOMETRY.row(cell), SIZE + GEOMETRY.col(cell), 2 * SIZE + GEOMETRY.box(cell)};
+        for (int u : units) {
+            int places = 0;
+            for (int other : GEOMETRY.unit(u)) {
+                if ((candidates[other] & bit) != 0) places++;
+            }
+            if (places == 1) return unitName(u);
+        }
+        return null;
+    }
+
+    private void count(int cell, int digit, int delta) {
+        int[] units = {GEOMETRY.row(cell), SIZE + GEOMETRY.col(cell), 2 * SIZE + GEOMETRY.box(cell)};
+        for (int u : units) {
+            int index = u * (SIZE + 1) + digit;
+            digitCounts[index] += delta;
+            if (digitCounts[index] == 0) unitDigits[u] &= ~(1 << (digit - 1));
+            else unitDigits[u] |= 1 << (digit - 1);
+        }
+    }
+
+    private int derive(int cell) {
+        if (values[cell] != 0) return 0;
+        return ~(unitDigits[GEOMETRY.row(cell)] | unitDigits[SIZE + GEOMETRY.col(cell)]
+                | unitDigits[2 * SIZE + GEOMETRY.box(cell)] | struck[cell]) & ALL_DIGITS;
+    }
+
+    static String cellName(int cell) {
+        return "r" + (cell / SIZE + 1) + "c" + (cell % SIZE + 1);
+    }
+
+    private static String unitName(int unit) {
+        if (unit < SIZE) return "row " + (unit + 1);
+        if (unit < 2 * SIZE) return "column " + (unit - SIZE + 1);
+        return "box " + (unit - 2 * SIZE + 1);
+    }
+
+    private static String digitList(int mask) {
+        StringBuilder sb = new StringBuilder();
+        while (mask != 0) {
+            if (sb.length() > 0) sb.append('/');
+            sb.append(Integer.numberOfTrailingZeros(mask) + 1);
+            mask &= mask - 1;
+        }
+        return sb.toString();
+    }
+
+    /** One deduction: either a placement or a set of candidate eliminations. */
+    public static final class Hint {
+        private final Technique technique;
+        private final int[] cells;
+        private final int digits;
+        private final int cell;
+        private final int digit;
+        private final String unit;
+        private final int[] eliminated;
+
+        Hint(Technique technique, int[] cells, int digits, int cell, int digit, String unit, int[] eliminated) {
+            this.technique = technique;
+            this.cells = cells;
+            this.digits = digits;
+            this.cell = cell;
+            this.digit = digit;
+            this.unit = unit;
+            this.eliminated = eliminated;
+        }
+
+        /** The technique used, or null if the hint was revealed from the solution. */
+        public Technique technique() {
+            return technique;
+        }
+
+        /** Cells forming the pattern (the placed cell for singles). */
+        public int[] cells() {
+            return cells.clone();
+        }
+
+        /** Digits involved, as a 9-bit mask. */
+        public int digits() {
+            return digits;
+        }
+
+        public boolean isPlacement() {
+            return cell >= 0;
+        }
+
+        /** Cell to fill for a placement, otherwise -1. */
+        public int cell() {
+            return cell;
+        }
+
+        public int digit() {
+            return digit;
+        }
+
+        /** Candidates this hint removes from {@code cell}, as a 9-bit mask. */
+        public int eliminated(int cell) {
+            return eliminated[cell];
+        }
+
+        /** A one-line explanation for the player. */
+        public String describe() {
+            if (technique == null) {
+                return "No step found with the known techniques, so " + cellName(cell) + " is revealed: " + digit;
+            }
+            if (isPlacement()) {
+                if (technique == Technique.NAKED_SINGLE) {
+                    return "Naked single: " + digit + " is the only candidate left in " + cellName(cell);
+                }
+                return "Hidden single: " + digit + " fits only in " + cellName(cell)
+                        + (unit != null ? " within " + unit : "");
+            }
+            StringBuilder sb = new StringBuilder(technique.displayName())
+                    .append(" on ").append(digitList(digits)).append(" in ");
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(cellName(cells[i]));
+            }
+            sb.append(" removes");
+            String separator = " ";
+            for (int c = 0; c < CELLS; c++) {
+                if (eliminated[c] != 0) {
+                    sb.append(separator).append(digitList(eliminated[c])).append(" from ").append(cellName(c));
+                    separator = ", ";
+                }
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return describe();
+        }
+    }
+}
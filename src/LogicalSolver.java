@@ -0,0 +1,412 @@
+import java.util.Arrays;
+
+/**
+ * Solves puzzles the way a person would, one deduction at a time, on a grid
+ * of 9-bit candidate masks. Each {@link #step()} applies the easiest
+ * technique that makes progress, and {@link #grade} rates a puzzle by the
+ * hardest technique it needed. Nothing is allocated after construction, so
+ * grading is cheap enough to run on every generated candidate.
+ * An instance is not thread-safe.
+ */
+public class LogicalSolver {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int ALL_DIGITS = (1 << SIZE) - 1;
+
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+    private static final int[] ROW_OF = GEOMETRY.rowTable();
+    private static final int[] COL_OF = GEOMETRY.colTable();
+    private static final int[] BOX_OF = GEOMETRY.boxTable();
+    // Units 0-8 are rows, 9-17 columns, 18-26 boxes
+    private static final int[][] UNITS = GEOMETRY.unitTable();
+    private static final int[][] PEERS = GEOMETRY.peerTable();
+
+    // Kinds of subset searched by findSubset()
+    private static final int NAKED = 0, HIDDEN = 1, FISH_ROWS = 2, FISH_COLS = 3;
+
+    private final int[] values = new int[CELLS];
+    private final int[] candidates = new int[CELLS];
+    private final int[] subsetMasks = new int[SIZE];
+    private int unsolved;
+    private boolean contradiction;
+    private Technique hardest;
+
+    // Context of the subset search in progress
+    private int subsetKind;
+    private int subsetUnit;
+    private int subsetDigit;
+
+    // Details of the last step, for explaining it
+    private final int[] stepCells = new int[CELLS];
+    private int stepCellCount;
+    private int stepDigits;
+    private int stepEliminations;
+
+    /**
+     * Loads a row-major grid (0 = empty) and computes all candidates.
+     * Returns false if the givens already contradict each other.
+     */
+    public boolean load(int[] grid) {
+        Arrays.fill(values, 0);
+        Arrays.fill(candidates, ALL_DIGITS);
+        unsolved = CELLS;
+        contradiction = false;
+        hardest = null;
+        stepCellCount = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int v = grid[cell];
+            if (v == 0) continue;
+            if (v < 0 || v > SIZE || (candidates[cell] & (1 << (v - 1))) == 0) return false;
+            place(cell, v);
+        }
+        return !contradiction;
+    }
+
+    /**
+     * Loads a position whose candidates are already known, e.g. maintained
+     * incrementally by {@link HintEngine}. Filled cells must have no
+     * candidates; an empty cell without any marks a contradiction.
+     */
+    public void load(int[] grid, int[] cellCandidates) {
+        System.arraycopy(grid, 0, values, 0, CELLS);
+        System.arraycopy(cellCandidates, 0, candidates, 0, CELLS);
+        unsolved = 0;
+        contradiction = false;
+        hardest = null;
+        stepCellCount = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (values[cell] != 0) continue;
+            unsolved++;
+            if (candidates[cell] == 0) contradiction = true;
+        }
+    }
+
+    /** Grades a puzzle by the hardest technique needed to solve it. */
+    public Difficulty grade(int[] grid) {
+        if (!load(grid)) return Difficulty.EXPERT;
+        solve();
+        if (!isSolved()) return Difficulty.EXPERT;
+        return hardest == null ? Difficulty.EASY : hardest.difficulty();
+    }
+
+    /** Applies steps until solved or stuck; returns true if solved. */
+    public boolean solve() {
+        while (step() != null) {
+            // keep going
+        }
+        return isSolved();
+    }
+
+    /**
+     * Applies the easiest deduction available and returns its technique,
+     * or null if the solver is stuck, solved, or hit a contradiction.
+     */
+    public Technique step() {
+        if (contradiction || unsolved == 0) return null;
+        Technique applied = null;
+        if (nakedSingle()) applied = Technique.NAKED_SINGLE;
+        else if (hiddenSingle()) applied = Technique.HIDDEN_SINGLE;
+        else if (lockedCandidates()) applied = Technique.LOCKED_CANDIDATES;
+        else if (nakedSubset(2)) applied = Technique.NAKED_PAIR;
+        else if (hiddenSubset(2)) applied = Technique.HIDDEN_PAIR;
+        else if (nakedSubset(3)) applied = Technique.NAKED_TRIPLE;
+        else if (hiddenSubset(3)) applied = Technique.HIDDEN_TRIPLE;
+        else if (fish(2)) applied = Technique.X_WING;
+        else if (fish(3)) applied = Technique.SWORDFISH;
+        if (applied != null && (hardest == null || applied.compareTo(hardest) > 0)) {
+            hardest = applied;
+        }
+        return applied;
+    }
+
+    public boolean isSolved() {
+        return unsolved == 0 && !contradiction;
+    }
+
+    public boolean hasContradiction() {
+        return contradiction;
+    }
+
+    /** Hardest technique applied since the last load, or null if none. */
+    public Technique getHardestTechnique() {
+        return hardest;
+    }
+
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    public int candidates(int cell) {
+        return candidates[cell];
+    }
+
+    /** Cells forming the pattern of the last step (the placed cell for singles). */
+    public int stepCellCount() {
+        return stepCellCount;
+    }
+
+    public int stepCell(int i) {
+        return stepCells[i];
+    }
+
+    /** Digits involved in the last step, as a 9-bit mask. */
+    public int stepDigits() {
+        return stepDigits;
+    }
+
+    /** Candidates removed by the last step; zero for placements. */
+    public int stepEliminations() {
+        return stepEliminations;
+    }
+
+    /** Places a digit and removes it from the candidates of every peer. */
+    public void place(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        values[cell] = digit;
+        candidates[cell] = 0;
+        unsolved--;
+        for (int peer : PEERS[cell]) {
+            if ((candidates[peer] & bit) != 0) {
+                candidates[peer] &= ~bit;
+                if (candidates[peer] == 0) contradiction = true;
+            }
+        }
+    }
+
+    private void beginStep(int digits) {
+        stepCellCount = 0;
+        stepDigits = digits;
+        stepEliminations = 0;
+    }
+
+    private void eliminate(int cell, int mask) {
+        int removed = candidates[cell] & mask;
+        if (removed == 0) return;
+        candidates[cell] &= ~mask;
+        stepEliminations += Integer.bitCount(removed);
+        if (candidates[cell] == 0) contradiction = true;
+    }
+
+    private boolean nakedSingle() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int mask = candidates[cell];
+            if (values[cell] == 0 && Integer.bitCount(mask) == 1) {
+                beginStep(mask);
+                stepCells[stepCellCount++] = cell;
+                place(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hiddenSingle() {
+        for (int[] unit : UNITS) {
+            int once = 0, twice = 0, placed = 0;
+            for (int cell : unit) {
+                int mask = candidates[cell];
+                twice |= once & mask;
+                once |= mask;
+                if (values[cell] != 0) placed |= 1 << (values[cell] - 1);
+            }
+            if ((once | placed) != ALL_DIGITS) {
+                // Some digit has nowhere left to go in this unit
+                contradiction = true;
+                return false;
+            }
+            int exactlyOnce = once & ~twice;
+            if (exactlyOnce == 0) continue;
+            int bit = exactlyOnce & -exactlyOnce;
+            for (int cell : unit) {
+                if ((candidates[cell] & bit) != 0) {
+                    beginStep(bit);
+                    stepCells[stepCellCount++] = cell;
+                    place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Pointing (box to line) and claiming (line to box) eliminations. */
+    private boolean lockedCandidates() {
+        for (int u = 0; u < UNITS.length; u++) {
+            int[] unit = UNITS[u];
+            for (int d = 0; d < SIZE; d++) {
+                int bit = 1 << d;
+                int rows = 0, cols = 0, boxes = 0;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) != 0) {
+                        rows |= 1 << ROW_OF[cell];
+                        cols |= 1 << COL_OF[cell];
+                        boxes |= 1 << BOX_OF[cell];
+                    }
+                }
+                if (rows == 0) continue;
+
+                int target = -1;
+                if (u >= 2 * SIZE) {
+                    if (Integer.bitCount(rows) == 1) target = Integer.numberOfTrailingZeros(rows);
+                    else if (Integer.bitCount(cols) == 1) target = SIZE + Integer.numberOfTrailingZeros(cols);
+                } else if (Integer.bitCount(boxes) == 1) {
+                    target = 2 * SIZE + Integer.numberOfTrailingZeros(boxes);
+                }
+                if (target < 0) continue;
+
+                beginStep(bit);
+                for (int cell : UNITS[target]) {
+                    if (!contains(unit, cell)) eliminate(cell, bit);
+                }
+                if (stepEliminations > 0) {
+                    for (int cell : unit) {
+                        if ((candidates[cell] & bit) != 0) stepCells[stepCellCount++] = cell;
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean nakedSubset(int k) {
+        subsetKind = NAKED;
+        for (int u = 0; u < UNITS.length; u++) {
+            int[] unit = UNITS[u];
+            for (int i = 0; i < SIZE; i++) {
+                int count = Integer.bitCount(candidates[unit[i]]);
+                subsetMasks[i] = (count >= 2 && count <= k) ? candidates[unit[i]] : 0;
+            }
+            subsetUnit = u;
+            if (findSubset(k, 0, 0, 0, 0)) return true;
+        }
+        return false;
+    }
+
+    private boolean hiddenSubset(int k) {
+        subsetKind = HIDDEN;
+        for (int u = 0; u < UNITS.length; u++) {
+            int[] unit = UNITS[u];
+            // Index by digit: which positions of the unit can hold it
+            Arrays.fill(subsetMasks, 0);
+            for (int i = 0; i < SIZE; i++) {
+                int mask = candidates[unit[i]];
+                while (mask != 0) {
+                    int d = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    subsetMasks[d] |= 1 << i;
+                }
+            }
+            for (int d = 0; d < SIZE; d++) {
+                int count = Integer.bitCount(subsetMasks[d]);
+                if (count < 2 || count > k) subsetMasks[d] = 0;
+            }
+            subsetUnit = u;
+            if (findSubset(k, 0, 0, 0, 0)) return true;
+        }
+        return false;
+    }
+
+    /** X-Wing (k = 2) and Swordfish (k = 3), with rows and then columns as base sets. */
+    private boolean fish(int k) {
+        for (int orientation = FISH_ROWS; orientation <= FISH_COLS; orientation++) {
+            subsetKind = orientation;
+            for (int d = 0; d < SIZE; d++) {
+                int bit = 1 << d;
+                for (int line = 0; line < SIZE; line++) {
+                    int positions = 0;
+                    for (int i = 0; i < SIZE; i++) {
+                        int cell = orientation == FISH_ROWS ? line * SIZE + i : i * SIZE + line;
+                        if ((candidates[cell] & bit) != 0) positions |= 1 << i;
+                    }
+                    int count = Integer.bitCount(positions);
+                    subsetMasks[line] = (count >= 2 && count <= k) ? positions : 0;
+                }
+                subsetDigit = d;
+                if (findSubset(k, 0, 0, 0, 0)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches subsetMasks for k entries whose union has exactly k bits and
+     * applies the first such subset that eliminates something.
+     */
+    private boolean findSubset(int k, int start, int depth, int union, int chosen) {
+        if (depth == k) {
+            return Integer.bitCount(union) == k && applySubset(chosen, union);
+        }
+        for (int i = start; i < SIZE; i++) {
+            if (subsetMasks[i] == 0) continue;
+            int merged = union | subsetMasks[i];
+            if (Integer.bitCount(merged) > k) continue;
+            if (findSubset(k, i + 1, depth + 1, merged, chosen | 1 << i)) return true;
+        }
+        return false;
+    }
+
+    private boolean applySubset(int chosen, int union) {
+        switch (subsetKind) {
+            case NAKED: {
+                // 'chosen' are unit positions, 'union' their digits
+                int[] unit = UNITS[subsetUnit];
+                beginStep(union);
+                for (int i = 0; i < SIZE; i++) {
+                    if ((chosen & (1 << i)) == 0) eliminate(unit[i], union);
+                }
+                return recordSubset(unit, chosen);
+            }
+            case HIDDEN: {
+                // 'chosen' are digits, 'union' the unit positions holding them
+                int[] unit = UNITS[subsetUnit];
+                beginStep(chosen);
+                for (int i = 0; i < SIZE; i++) {
+                    if ((union & (1 << i)) != 0) eliminate(unit[i], ~chosen & ALL_DIGITS);
+                }
+                return recordSubset(unit, union);
+            }
+            default: {
+                // 'chosen' are base lines, 'union' the cover lines
+                int bit = 1 << subsetDigit;
+                beginStep(bit);
+                for (int line = 0; line < SIZE; line++) {
+                    if ((chosen & (1 << line)) != 0) continue;
+                    for (int i = 0; i < SIZE; i++) {
+                        if ((union & (1 << i)) != 0) eliminate(fishCell(line, i), bit);
+                    }
+                }
+                if (stepEliminations == 0) return false;
+                for (int line = 0; line < SIZE; line++) {
+                    if ((chosen & (1 << line)) == 0) continue;
+                    for (int i = 0; i < SIZE; i++) {
+                        int cell = fishCell(line, i);
+                        if ((union & (1 << i)) != 0 && (candidates[cell] & bit) != 0) {
+                            stepCells[stepCellCount++] = cell;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    private int fishCell(int line, int i) {
+        return subsetKind == FISH_ROWS ? line * SIZE + i : i * SIZE + line;
+    }
+
+    private boolean recordSubset(int[] unit, int positions) {
+        if (stepEliminations == 0) return false;
+        for (int i = 0; i < SIZE; i++) {
+            if ((positions & (1 << i)) != 0) stepCells[stepCellCount++] = unit[i];
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] unit, int cell) {
+        for (int c : unit) {
+            if (c == cell) return true;
+        }
+        return false;
+    }
+}
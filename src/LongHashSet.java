@@ -0,0 +1,74 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of longs backed by a single primitive array, so
+ * millions of keys cost 16 bytes or less each and no boxing. Used as a
+ * dedup index of canonical puzzle hashes. Not thread-safe.
+ */
+public class LongHashSet {
+    private long[] slots; // 0 marks an empty slot
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        slots = new long[capacity];
+    }
+
+    /** Adds a key; returns false if it was already present. */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = mix(key) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        slots[i] = key;
+        if (++size * 2 > slots.length) grow();
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZero;
+        int mask = slots.length - 1;
+        for (int i = mix(key) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (slots[i] == key) return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long key : old) {
+            if (key == 0) continue;
+            int i = mix(key) & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = key;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,123 @@
+import java.io.PrintStream;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.EventType;
+
+/**
+ * Process-wide counters and latency histograms for the solvers, the
+ * generator and the game's move handling. Collection is off unless the JVM
+ * runs with {@code -Dsudoku.metrics=true}; {@link #ENABLED} is a constant,
+ * so when it is false the JIT removes every guarded call site and the only
+ * remaining cost is the solvers' own per-call node counters.
+ *
+ * The same operations also emit JFR events ({@link SolveEvent},
+ * {@link GenerationEvent}) whenever a flight recording is running,
+ * independent of this switch. Events are only allocated while a
+ * recording has them enabled, so solves stay allocation-free otherwise.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("sudoku.metrics");
+
+    public static final LongAdder SOLVES = new LongAdder();
+    public static final LongAdder SOLVER_NODES = new LongAdder();
+    public static final LongAdder SOLVER_BACKTRACKS = new LongAdder();
+    public static final LongAdder PUZZLES_GENERATED = new LongAdder();
+    /** Candidate puzzles thrown away for missing the requested difficulty. */
+    public static final LongAdder GENERATOR_RETRIES = new LongAdder();
+    /** Dug cells put back because the grid stopped being unique. */
+    public static final LongAdder REJECTED_REMOVALS = new LongAdder();
+
+    public static final LatencyHistogram SOLVE = new LatencyHistogram("solve");
+    public static final LatencyHistogram GENERATE = new LatencyHistogram("generate");
+    public static final LatencyHistogram MOVE = new LatencyHistogram("move");
+
+    private static final LatencyHistogram[] HISTOGRAMS = {SOLVE, GENERATE, MOVE};
+    private static final EventType SOLVE_EVENT = EventType.getEventType(SolveEvent.class);
+    private static final EventType GENERATION_EVENT = EventType.getEventType(GenerationEvent.class);
+
+    private Metrics() {
+    }
+
+    /** Records one finished solver search; call only when {@link #ENABLED}. */
+    static void solveFinished(long startNanos, long nodes, long backtracks) {
+        SOLVE.recordSince(startNanos);
+        SOLVES.increment();
+        SOLVER_NODES.add(nodes);
+        SOLVER_BACKTRACKS.add(backtracks);
+    }
+
+    /** Starts a solve event, or returns null when no recording has solve events enabled. */
+    static SolveEvent beginSolve() {
+        if (!SOLVE_EVENT.isEnabled()) return null;
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        return event;
+    }
+
+    /** Commits a solve event from {@link #beginSolve()} if a flight recording wants it. */
+    static void commitSolve(SolveEvent event, String engine, int cells, long nodes, int solutions) {
+        if (event != null && event.shouldCommit()) {
+            event.engine = engine;
+            event.cells = cells;
+            event.nodes = nodes;
+            event.solutions = solutions;
+            event.commit();
+        }
+    }
+
+    /** Starts a generation event, or returns null when no recording has generation events enabled. */
+    static GenerationEvent beginGeneration() {
+        if (!GENERATION_EVENT.isEnabled()) return null;
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records one generated puzzle ({@code start} is 0 when disabled) and
+     * commits its event if a flight recording wants it. {@code difficulty}
+     * is null for puzzles dug to a blank count.
+     */
+    static void generationFinished(GenerationEvent event, long start, String difficulty, int clues, int attempts) {
+        if (ENABLED) {
+            GENERATE.recordSince(start);
+            PUZZLES_GENERATED.increment();
+        }
+        if (event != null && event.shouldCommit()) {
+            event.difficulty = difficulty;
+            event.clues = clues;
+            event.attempts = attempts;
+            event.commit();
+        }
+    }
+
+    public static void reset() {
+        SOLVES.reset();
+        SOLVER_NODES.reset();
+        SOLVER_BACKTRACKS.reset();
+        PUZZLES_GENERATED.reset();
+        GENERATOR_RETRIES.reset();
+        REJECTED_REMOVALS.reset();
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    /** Prints all counters and histogram summaries (latencies in microseconds). */
+    public static void dump(PrintStream out) {
+        if (!ENABLED) {
+            out.println("Metrics disabled; run with -Dsudoku.metrics=true");
+            return;
+        }
+        out.printf("%-22s %14d%n", "solver.solves", SOLVES.sum());
+        out.printf("%-22s %14d%n", "solver.nodes", SOLVER_NODES.sum());
+        out.printf("%-22s %14d%n", "solver.backtracks", SOLVER_BACKTRACKS.sum());
+        out.printf("%-22s %14d%n", "generator.puzzles", PUZZLES_GENERATED.sum());
+        out.printf("%-22s %14d%n", "generator.retries", GENERATOR_RETRIES.sum());
+        out.printf("%-22s %14d%n", "generator.rejected", REJECTED_REMOVALS.sum());
+        out.printf("%-10s %10s %10s %10s %10s %10s %10s%n", "latency", "count", "mean", "p50", "p90", "p99", "max");
+        for (LatencyHistogram h : HISTOGRAMS) {
+            out.printf("%-10s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", h.name(), h.count(), h.mean() / 1e3,
+                    h.percentile(50) / 1e3, h.percentile(90) / 1e3, h.percentile(99) / 1e3, h.max() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+/**
+ * Unlimited undo/redo log of cell edits. Each move is packed into one long
+ * (cell, old and new value, old and new note mask, error and hint flags)
+ * and stored in a growable primitive array, so recording, undoing and
+ * redoing are all O(1) and allocation-free apart from occasional growth.
+ */
+public class MoveHistory {
+    // Bit layout of a packed move
+    private static final int VALUE_BITS = 4;
+    private static final int NOTE_BITS = 9;
+    private static final int OLD_VALUE_SHIFT = 7;
+    private static final int NEW_VALUE_SHIFT = OLD_VALUE_SHIFT + VALUE_BITS;
+    private static final int OLD_NOTES_SHIFT = NEW_VALUE_SHIFT + VALUE_BITS;
+    private static final int NEW_NOTES_SHIFT = OLD_NOTES_SHIFT + NOTE_BITS;
+    private static final int ERROR_SHIFT = NEW_NOTES_SHIFT + NOTE_BITS;
+    private static final int HINT_SHIFT = ERROR_SHIFT + 1;
+    private static final int LINKED_SHIFT = HINT_SHIFT + 1;
+
+    private long[] moves = new long[64];
+    private int size;
+    private int cursor;
+
+    /** Packs a move; {@code error} and {@code hint} mark moves that counted as such. */
+    public static long pack(int cell, int oldValue, int newValue, int oldNotes, int newNotes,
+                            boolean error, boolean hint) {
+        return cell
+                | (long) oldValue << OLD_VALUE_SHIFT
+                | (long) newValue << NEW_VALUE_SHIFT
+                | (long) oldNotes << OLD_NOTES_SHIFT
+                | (long) newNotes << NEW_NOTES_SHIFT
+                | (error ? 1L : 0L) << ERROR_SHIFT
+                | (hint ? 1L : 0L) << HINT_SHIFT;
+    }
+
+    public static int cell(long move) {
+        return (int) (move & 0x7F);
+    }
+
+    public static int oldValue(long move) {
+        return (int) (move >>> OLD_VALUE_SHIFT) & 0xF;
+    }
+
+    public static int newValue(long move) {
+        return (int) (move >>> NEW_VALUE_SHIFT) & 0xF;
+    }
+
+    public static int oldNotes(long move) {
+        return (int) (move >>> OLD_NOTES_SHIFT) & 0x1FF;
+    }
+
+    public static int newNotes(long move) {
+        return (int) (move >>> NEW_NOTES_SHIFT) & 0x1FF;
+    }
+
+    public static boolean isError(long move) {
+        return (move >>> ERROR_SHIFT & 1) != 0;
+    }
+
+    public static boolean isHint(long move) {
+        return (move >>> HINT_SHIFT & 1) != 0;
+    }
+
+    /** Marks a move as part of the one recorded before it, so both undo and redo together. */
+    public static long link(long move) {
+        return move | 1L << LINKED_SHIFT;
+    }
+
+    public static boolean isLinked(long move) {
+        return (move >>> LINKED_SHIFT & 1) != 0;
+    }
+
+    /** Records a move, discarding anything that could have been redone. */
+    public void record(long move) {
+        if (cursor == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[cursor++] = move;
+        size = cursor;
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < size;
+    }
+
+    /** Steps back and returns the move to revert. */
+    public long undo() {
+        if (!canUndo()) throw new IllegalStateException("Nothing to undo");
+        return moves[--cursor];
+    }
+
+    /** Steps forward and returns the move to re-apply. */
+    public long redo() {
+        if (!canRedo()) throw new IllegalStateException("Nothing to redo");
+        return moves[cursor++];
+    }
+
+    /** True if the next move to redo is linked to the one just redone. */
+    public boolean redoIsLinked() {
+        return cursor < size && isLinked(moves[cursor]);
+    }
+
+    /** Number of moves that can currently be undone. */
+    public int position() {
+        return cursor;
+    }
+
+    /** Total recorded moves, including ones that can be redone. */
+    public int size() {
+        return size;
+    }
+
+    /** Copy of all recorded moves, oldest first. */
+    public long[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /** Replaces the log, e.g. from a saved game. */
+    public void restore(long[] saved, int position) {
+        if (position < 0 || position > saved.length) {
+            throw new IllegalArgumentException("Position " + position + " outside log of " + saved.length);
+        }
+        moves = Arrays.copyOf(saved, Math.max(64, saved.length));
+        size = saved.length;
+        cursor = position;
+    }
+
+    public void clear() {
+        size = 0;
+        cursor = 0;
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves a single puzzle on several cores. The top levels of the search
+ * tree are split into fork/join tasks, branching on the most constrained
+ * cell and following forced cells without spending a level; below the
+ * split depth each task runs a sequential {@link BitmaskSolver}.
+ *
+ * Tasks share one cancellation flag. It is raised by the first solution
+ * when solving, or once {@code limit} solutions are known when counting
+ * (e.g. the second one for a uniqueness check), and is polled both before
+ * a task starts and inside the sequential searches.
+ *
+ * Puzzles with few empty cells are solved sequentially on the calling
+ * thread, since forking would only add overhead there. Like the other
+ * engines an instance is not thread-safe, but one pool can serve many.
+ */
+public class ParallelSolver implements SolverEngine {
+    private static final int SIZE = 9;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int ALL_DIGITS = (1 << SIZE) - 1;
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+    private static final int[] ROW_OF = GEOMETRY.rowTable();
+    private static final int[] COL_OF = GEOMETRY.colTable();
+    private static final int[] BOX_OF = GEOMETRY.boxTable();
+    public static final int DEFAULT_SPLIT_DEPTH = 4;
+    public static final int DEFAULT_SEQUENTIAL_BELOW = 55;
+
+    private static final ThreadLocal<BitmaskSolver> LEAF_SOLVER = ThreadLocal.withInitial(BitmaskSolver::new);
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final int sequentialBelow;
+    private long nodes;
+
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH, DEFAULT_SEQUENTIAL_BELOW);
+    }
+
+    /**
+     * @param splitDepth      branching levels that fork tasks before searching sequentially
+     * @param sequentialBelow puzzles with fewer empty cells skip the pool entirely
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth, int sequentialBelow) {
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.sequentialBelow = sequentialBelow;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    @Override
+    public boolean solve(int[] grid) {
+        Search search = new Search(1);
+        run(grid, search);
+        int[] found = search.solution.get();
+        if (found == null) return false;
+        System.arraycopy(found, 0, grid, 0, CELLS);
+        return true;
+    }
+
+    @Override
+    public int countSolutions(int[] grid, int limit) {
+        Search search = new Search(limit);
+        run(grid, search);
+        return Math.min(limit, search.solutions.get());
+    }
+
+    private void run(int[] grid, Search search) {
+        int empty = 0;
+        for (int v : grid) {
+            if (v == 0) empty++;
+        }
+        if (empty < sequentialBelow) {
+            search.leaf(grid.clone());
+        } else {
+            pool.invoke(new SplitTask(search, grid.clone(), 0));
+        }
+        nodes = search.nodes.sum();
+    }
+
+    /** State shared by all tasks of one solve or count. */
+    private static final class Search {
+        final int limit;
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicInteger solutions = new AtomicInteger();
+        final AtomicReference<int[]> solution = new AtomicReference<>();
+        final LongAdder nodes = new LongAdder();
+
+        Search(int limit) {
+            this.limit = limit;
+        }
+
+        /** Searches one subtree sequentially and publishes what it finds. */
+        void leaf(int[] grid) {
+            BitmaskSolver solver = LEAF_SOLVER.get();
+            solver.setCancellation(stop);
+            try {
+                int found;
+                if (limit == 1) {
+                    found = solver.solve(grid) ? 1 : 0;
+                    if (found == 1) solution.compareAndSet(null, grid);
+                } else {
+                    found = solver.countSolutions(grid, Math.max(1, limit - solutions.get()));
+                }
+                nodes.add(solver.getNodeCount());
+                if (found > 0 && solutions.addAndGet(found) >= limit) {
+                    stop.set(true);
+                }
+            } finally {
+                solver.setCancellation(null);
+            }
+        }
+    }
+
+    private final class SplitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Search search;
+        private final int[] grid;
+        private final int depth;
+
+        SplitTask(Search search, int[] grid, int depth) {
+            this.search = search;
+            this.grid = grid;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.stop.get()) return;
+            if (depth >= splitDepth) {
+                search.leaf(grid);
+                return;
+            }
+
+            int[] rows = new int[SIZE], cols = new int[SIZE], boxes = new int[SIZE];
+            for (int cell = 0; cell < CELLS; cell++) {
+                int v = grid[cell];
+                if (v == 0) continue;
+                if (v < 0 || v > SIZE) return;
+                int bit = 1 << (v - 1);
+                int r = ROW_OF[cell], c = COL_OF[cell], b = BOX_OF[cell];
+                if (((rows[r] | cols[c] | boxes[b]) & bit) != 0) return; // clashing givens
+                rows[r] |= bit;
+                cols[c] |= bit;
+                boxes[b] |= bit;
+            }
+
+            // Follow forced cells, then branch on the most constrained one
+            while (true) {
+                int best = -1, bestMask = 0, bestCount = SIZE + 1;
+                for (int cell = 0; cell < CELLS && bestCount > 1; cell++) {
+                    if (grid[cell] != 0) continue;
+                    int r = ROW_OF[cell], c = COL_OF[cell], b = BOX_OF[cell];
+                    int mask = ~(rows[r] | cols[c] | boxes[b]) & ALL_DIGITS;
+                    int count = Integer.bitCount(mask);
+                    if (count < bestCount) {
+                        best = cell;
+                        bestMask = mask;
+                        bestCount = count;
+                    }
+                }
+                if (best < 0) {
+                    search.leaf(grid); // already complete
+                    return;
+                }
+                if (bestCount == 0) return;
+                if (bestCount > 1) {
+                    fork(best, bestMask);
+                    return;
+                }
+                int r = ROW_OF[best], c = COL_OF[best], b = BOX_OF[best];
+                grid[best] = Integer.numberOfTrailingZeros(bestMask) + 1;
+                rows[r] |= bestMask;
+                cols[c] |= bestMask;
+                boxes[b] |= bestMask;
+            }
+        }
+
+        private void fork(int cell, int mask) {
+            SplitTask[] children = new SplitTask[Integer.bitCount(mask)];
+            for (int i = 0; mask != 0; i++) {
+                int[] child = grid.clone();
+                child[cell] = Integer.numberOfTrailingZeros(mask) + 1;
+                mask &= mask - 1;
+                children[i] = new SplitTask(search, child, depth + 1);
+            }
+            invokeAll(children);
+        }
+    }
+}
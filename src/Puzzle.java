@@ -0,0 +1,99 @@
+/**
+ * A generated puzzle: the givens (0 = blank) and its unique solution, both
+ * stored row-major as 81 cells, the rules it is played under, plus the
+ * seed it was generated from when known. Instances are immutable.
+ */
+public final class Puzzle {
+    public static final int SIZE = 9;
+    public static final int CELLS = SIZE * SIZE;
+
+    private final int[] givens;
+    private final int[] solution;
+    private final boolean seeded;
+    private final long seed;
+    private final VariantRules rules;
+
+    public Puzzle(int[] givens, int[] solution) {
+        this(givens, solution, false, 0, VariantRules.CLASSIC);
+    }
+
+    private Puzzle(int[] givens, int[] solution, boolean seeded, long seed, VariantRules rules) {
+        if (givens.length != CELLS || solution.length != CELLS) {
+            throw new IllegalArgumentException("Puzzle grids must have " + CELLS + " cells");
+        }
+        this.givens = givens.clone();
+        this.solution = solution.clone();
+        this.seeded = seeded;
+        this.seed = seed;
+        this.rules = rules;
+    }
+
+    /** The same puzzle, labelled with the seed that regenerates it. */
+    public Puzzle withSeed(long seed) {
+        return new Puzzle(givens, solution, true, seed, rules);
+    }
+
+    /** The same puzzle under variant rules, which its solution must satisfy. */
+    public Puzzle withRules(VariantRules rules) {
+        if (!rules.isSolution(solution)) {
+            throw new IllegalArgumentException("Solution breaks the rules: " + rules);
+        }
+        return new Puzzle(givens, solution, seeded, seed, rules);
+    }
+
+    /**
+     * True if the puzzle came from {@link PuzzleGenerator#generate(long, Difficulty)}
+     * or {@link VariantGenerator#generate(long, int)}.
+     */
+    public boolean hasSeed() {
+        return seeded;
+    }
+
+    public long seed() {
+        if (!seeded) throw new IllegalStateException("Puzzle has no seed");
+        return seed;
+    }
+
+    /** The rules the puzzle is played under; {@link VariantRules#CLASSIC} unless set. */
+    public VariantRules rules() {
+        return rules;
+    }
+
+    public int given(int r, int c) {
+        return givens[r * SIZE + c];
+    }
+
+    public int solution(int r, int c) {
+        return solution[r * SIZE + c];
+    }
+
+    public int[] givens() {
+        return givens.clone();
+    }
+
+    public int[] solution() {
+        return solution.clone();
+    }
+
+    public int clueCount() {
+        int clues = 0;
+        for (int v : givens) {
+            if (v != 0) clues++;
+        }
+        return clues;
+    }
+
+    /** Writes 81 characters with '.' for blanks, e.g. for line-per-puzzle files. */
+    public static void appendGrid(StringBuilder sb, int[] grid) {
+        for (int v : grid) {
+            sb.append(v == 0 ? '.' : (char) ('0' + v));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(CELLS);
+        appendGrid(sb, givens);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a 9x9 grid at 4 bits per cell: 81 nibbles in 41 bytes, two cells
+ * per byte with the earlier cell in the high nibble. Puzzles are stored as
+ * givens only; their unique solution is derived on decode.
+ */
+public final class PuzzleCodec {
+    public static final int PACKED_SIZE = (Puzzle.CELLS + 1) / 2;
+
+    private PuzzleCodec() {
+    }
+
+    public static void encode(int[] grid, byte[] dst, int offset) {
+        for (int i = 0; i < PACKED_SIZE; i++) {
+            int hi = grid[2 * i];
+            int lo = 2 * i + 1 < Puzzle.CELLS ? grid[2 * i + 1] : 0;
+            dst[offset + i] = (byte) (hi << 4 | lo);
+        }
+    }
+
+    public static void decode(byte[] src, int offset, int[] grid) {
+        for (int i = 0; i < PACKED_SIZE; i++) {
+            unpack(src[offset + i], i, grid);
+        }
+    }
+
+    /** Decodes using absolute reads, so the buffer's position is untouched. */
+    public static void decode(ByteBuffer src, int offset, int[] grid) {
+        for (int i = 0; i < PACKED_SIZE; i++) {
+            unpack(src.get(offset + i), i, grid);
+        }
+    }
+
+    private static void unpack(byte b, int i, int[] grid) {
+        grid[2 * i] = (b >> 4) & 0xF;
+        if (2 * i + 1 < Puzzle.CELLS) grid[2 * i + 1] = b & 0xF;
+    }
+
+    /** Decodes givens and solves them; throws if the record is not a valid puzzle. */
+    public static Puzzle toPuzzle(int[] givens, SolverEngine solver) {
+        int[] solution = givens.clone();
+        if (!solver.solve(solution)) {
+            throw new IllegalArgumentException("Packed puzzle has no solution");
+        }
+        return new Puzzle(givens, solution);
+    }
+}
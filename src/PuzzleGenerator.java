@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates puzzles with exactly one solution: fills a random complete grid,
+ * then digs cells one at a time, keeping a removal only if the solution
+ * counter still finds a single solution. An instance is not thread-safe.
+ *
+ * All randomness comes from the generator's {@link RandomGenerator}, so a
+ * seeded source makes generation fully reproducible; see
+ * {@link #generate(long, Difficulty)}.
+ */
+public class PuzzleGenerator {
+    private static final int CELLS = Puzzle.CELLS;
+    private static final int MAX_ATTEMPTS = 100_000;
+
+    private RandomGenerator random;
+    private final BitmaskSolver solver = new BitmaskSolver();
+    private final SolverEngine checker;
+    private final LogicalSolver grader = new LogicalSolver();
+    private final int[] order = new int[CELLS];
+
+    public PuzzleGenerator(RandomGenerator random) {
+        this.random = random;
+        this.checker = solver;
+    }
+
+    /**
+     * @param checker engine used for the uniqueness check while digging; the
+     *                random fill always uses the bitmask solver
+     */
+    public PuzzleGenerator(RandomGenerator random, SolverEngine checker) {
+        this.random = random;
+        this.checker = checker;
+    }
+
+    /** Replaces the random source, e.g. to reseed per puzzle. */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * The puzzle addressed by {@code seed}: the same seed and difficulty
+     * always produce the same puzzle, on any machine and thread. Leaves the
+     * generator drawing from that seed's stream.
+     */
+    public Puzzle generate(long seed, Difficulty difficulty) {
+        setRandom(new SplittableRandom(seed));
+        return generate(difficulty).withSeed(seed);
+    }
+
+    /**
+     * Seed of puzzle {@code index} in a batch started from {@code batchSeed},
+     * so any line of a batch can be regenerated on its own.
+     */
+    public static long seedFor(long batchSeed, long index) {
+        long z = batchSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Generates a unique puzzle with up to {@code cellsToRemove} blanks. If
+     * no further cell can be removed without losing uniqueness, the puzzle
+     * is returned with fewer blanks.
+     */
+    public Puzzle generate(int cellsToRemove) {
+        int[] solution = new int[CELLS];
+        int[] grid = new int[CELLS];
+        generate(cellsToRemove, grid, solution);
+        return new Puzzle(grid, solution);
+    }
+
+    /**
+     * Same as {@link #generate(int)}, writing into caller-owned arrays.
+     * Returns the number of cells removed.
+     */
+    public int generate(int cellsToRemove, int[] givens, int[] solution) {
+        GenerationEvent event = Metrics.beginGeneration();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        generateSolution(solution);
+        System.arraycopy(solution, 0, givens, 0, CELLS);
+        int removed = removeCells(givens, cellsToRemove);
+        Metrics.generationFinished(event, start, null, CELLS - removed, 1);
+        return removed;
+    }
+
+    /**
+     * Generates unique puzzles until one grades as {@code target}. Easy
+     * puzzles are dug to 46 blanks; harder bands are dug as far as
+     * uniqueness allows. A candidate that grades too hard gets clues back,
+     * last removed first, until it grades at or below the target.
+     */
+    public Puzzle generate(Difficulty target) {
+        int blanks = target == Difficulty.EASY ? 46 : CELLS;
+        GenerationEvent event = Metrics.beginGeneration();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int[] solution = new int[CELLS];
+        int[] grid = new int[CELLS];
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            generateSolution(solution);
+            System.arraycopy(solution, 0, grid, 0, CELLS);
+            removeCells(grid, blanks);
+            Difficulty grade = grader.grade(grid);
+            // Too hard: restore dug cells (the tail of 'order') until it grades lower
+            for (int i = CELLS - 1; grade.compareTo(target) > 0 && i >= 0; i--) {
+                int cell = order[i];
+                if (grid[cell] == 0) {
+                    grid[cell] = solution[cell];
+                    grade = grader.grade(grid);
+                }
+            }
+            if (grade == target) {
+                Puzzle puzzle = new Puzzle(grid, solution);
+                Metrics.generationFinished(event, start, target.name(), puzzle.clueCount(), attempt + 1);
+                return puzzle;
+            }
+            if (Metrics.ENABLED) Metrics.GENERATOR_RETRIES.increment();
+        }
+        throw new IllegalStateException("No " + target + " puzzle after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /** Grades a puzzle by the hardest technique it needs. */
+    public Difficulty grade(int[] grid) {
+        return grader.grade(grid);
+    }
+
+    /** Fills the grid with a random complete solution. */
+    public void generateSolution(int[] grid) {
+        Arrays.fill(grid, 0);
+        solver.setRandom(random);
+        solver.solve(grid);
+        solver.setRandom(null);
+    }
+
+    /**
+     * Blanks cells of a uniquely solvable grid in random order, skipping any
+     * removal that would allow a second solution. Returns the number removed.
+     */
+    public int removeCells(int[] grid, int cellsToRemove) {
+        for (int i = 0; i < CELLS; i++) {
+            order[i] = i;
+        }
+        for (int i = CELLS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+
+        int removed = 0;
+        int rejected = 0;
+        for (int i = 0; i < CELLS && removed < cellsToRemove; i++) {
+            int cell = order[i];
+            int value = grid[cell];
+            if (value == 0) continue;
+            grid[cell] = 0;
+            if (checker.hasUniqueSolution(grid)) {
+                removed++;
+            } else {
+                grid[cell] = value;
+                rejected++;
+            }
+        }
+        if (Metrics.ENABLED) Metrics.REJECTED_REMOVALS.add(rejected);
+        return removed;
+    }
+
+    /** Nodes visited by the uniqueness checker on its most recent call. */
+    public long getNodeCount() {
+        return checker.getNodeCount();
+    }
+}
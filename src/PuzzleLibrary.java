@@ -0,0 +1,271 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only puzzle library backed by a memory-mapped file, so any puzzle can
+ * be fetched in O(1) without reading the file onto the heap.
+ *
+ * Layout (big-endian): magic, record size, band count, then one index entry
+ * per difficulty band (the {@link Difficulty} ordinal) (band id, first record, record count), followed by the
+ * packed records grouped by band. Files larger than 2 GB are mapped in
+ * several segments.
+ */
+public class PuzzleLibrary implements AutoCloseable {
+    private static final int MAGIC = 0x53444B31; // "SDK1"
+    private static final int HEADER_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 20;
+    private static final int RECORD_SIZE = PuzzleCodec.PACKED_SIZE;
+    private static final long RECORDS_PER_SEGMENT = (1L << 30) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long dataOffset;
+    private final long recordCount;
+    private final int[] bands;
+    private final long[] bandStart;
+    private final long[] bandCount;
+    private final ThreadLocal<BitmaskSolver> solvers = ThreadLocal.withInitial(BitmaskSolver::new);
+
+    private PuzzleLibrary(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a puzzle library file");
+        }
+        if (header.getInt() != RECORD_SIZE) {
+            throw new IOException("Unsupported record size");
+        }
+        int bandTotal = header.getInt();
+        if (bandTotal < 0 || bandTotal > (channel.size() - HEADER_SIZE) / INDEX_ENTRY_SIZE) {
+            throw new IOException("Corrupt band index");
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(bandTotal * INDEX_ENTRY_SIZE);
+        channel.read(index, HEADER_SIZE);
+        index.flip();
+        bands = new int[bandTotal];
+        bandStart = new long[bandTotal];
+        bandCount = new long[bandTotal];
+        long total = 0;
+        for (int i = 0; i < bandTotal; i++) {
+            bands[i] = index.getInt();
+            bandStart[i] = index.getLong();
+            bandCount[i] = index.getLong();
+            if (bandStart[i] < 0 || bandCount[i] < 0 || bandCount[i] > channel.size() / RECORD_SIZE) {
+                throw new IOException("Corrupt band index");
+            }
+            total += bandCount[i];
+        }
+        recordCount = total;
+        // Bands must tile the records exactly, or lookups would index past the data
+        Integer[] byStart = new Integer[bandTotal];
+        for (int i = 0; i < bandTotal; i++) {
+            byStart[i] = i;
+        }
+        Arrays.sort(byStart, Comparator.comparingLong(i -> bandStart[i]));
+        long end = 0;
+        for (int i : byStart) {
+            if (bandStart[i] < end || bandStart[i] + bandCount[i] > recordCount) {
+                throw new IOException("Corrupt band index");
+            }
+            end = bandStart[i] + bandCount[i];
+        }
+        dataOffset = HEADER_SIZE + (long) bandTotal * INDEX_ENTRY_SIZE;
+        if (channel.size() < dataOffset + recordCount * RECORD_SIZE) {
+            throw new IOException("Puzzle library is truncated");
+        }
+
+        int segmentTotal = (int) ((recordCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+        segments = new MappedByteBuffer[segmentTotal];
+        for (int s = 0; s < segmentTotal; s++) {
+            long first = s * RECORDS_PER_SEGMENT;
+            long records = Math.min(RECORDS_PER_SEGMENT, recordCount - first);
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    dataOffset + first * RECORD_SIZE, records * RECORD_SIZE);
+        }
+    }
+
+    public static PuzzleLibrary open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new PuzzleLibrary(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    /** Band ids present in the library, in file order. */
+    public int[] bands() {
+        return bands.clone();
+    }
+
+    public long count(int band) {
+        int i = bandIndex(band);
+        return i < 0 ? 0 : bandCount[i];
+    }
+
+    /** Decodes the puzzle at a global record index. */
+    public Puzzle get(long record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + recordCount);
+        }
+        int[] givens = new int[Puzzle.CELLS];
+        MappedByteBuffer segment = segments[(int) (record / RECORDS_PER_SEGMENT)];
+        PuzzleCodec.decode(segment, (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE, givens);
+        return PuzzleCodec.toPuzzle(givens, solvers.get());
+    }
+
+    public Puzzle random(RandomGenerator random) {
+        if (recordCount == 0) throw new IllegalStateException("Puzzle library is empty");
+        return get(random.nextLong(recordCount));
+    }
+
+    /** A random puzzle from one difficulty band, or null if the band is empty. */
+    public Puzzle random(int band, RandomGenerator random) {
+        int i = bandIndex(band);
+        if (i < 0 || bandCount[i] == 0) return null;
+        return get(bandStart[i] + random.nextLong(bandCount[i]));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int bandIndex(int band) {
+        for (int i = 0; i < bands.length; i++) {
+            if (bands[i] == band) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Streams puzzles into a new library file. Records are spooled to one
+     * temporary file per band and concatenated behind the header on close,
+     * so memory use does not grow with the number of puzzles.
+     */
+    public static class Writer implements AutoCloseable {
+        private final Path target;
+        private final Map<Integer, Path> spoolFiles = new TreeMap<>();
+        private final Map<Integer, OutputStream> spools = new TreeMap<>();
+        private final Map<Integer, Long> counts = new TreeMap<>();
+        private final byte[] record = new byte[RECORD_SIZE];
+
+        public Writer(Path target) {
+            this.target = target;
+        }
+
+        public void add(int band, int[] givens) throws IOException {
+            OutputStream out = spools.get(band);
+            if (out == null) {
+                Path spool = Files.createTempFile("puzzle-band-" + band, ".bin");
+                spoolFiles.put(band, spool);
+                out = new BufferedOutputStream(Files.newOutputStream(spool), 1 << 16);
+                spools.put(band, out);
+            }
+            PuzzleCodec.encode(givens, record, 0);
+            out.write(record);
+            counts.merge(band, 1L, Long::sum);
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (OutputStream out : spools.values()) {
+                out.close();
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + spools.size() * INDEX_ENTRY_SIZE);
+            header.putInt(MAGIC).putInt(RECORD_SIZE).putInt(spools.size());
+            long start = 0;
+            for (Map.Entry<Integer, Long> band : counts.entrySet()) {
+                header.putInt(band.getKey()).putLong(start).putLong(band.getValue());
+                start += band.getValue();
+            }
+            header.flip();
+
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                for (Path spool : spoolFiles.values()) {
+                    try (FileChannel in = FileChannel.open(spool, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long pos = 0; pos < size; ) {
+                            pos += in.transferTo(pos, size - pos, out);
+                        }
+                    }
+                }
+            } finally {
+                for (Path spool : spoolFiles.values()) {
+                    Files.deleteIfExists(spool);
+                }
+            }
+        }
+    }
+
+    /**
+     * CLI: {@code library build <puzzles.txt> <out.lib>} packs a line-per-puzzle
+     * file, skipping lines without exactly one solution; {@code library info <file>}
+     * prints the band index.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("build")) {
+            long start = System.nanoTime();
+            long added = 0;
+            long skipped = 0;
+            int[] givens = new int[Puzzle.CELLS];
+            LogicalSolver grader = new LogicalSolver();
+            BitmaskSolver checker = new BitmaskSolver();
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.US_ASCII);
+                 Writer out = new Writer(Paths.get(args[2]))) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    if (line.length() < Puzzle.CELLS) continue;
+                    for (int i = 0; i < Puzzle.CELLS; i++) {
+                        char ch = line.charAt(i);
+                        givens[i] = (ch >= '1' && ch <= '9') ? ch - '0' : 0;
+                    }
+                    // A broken line would be graded EXPERT and fail when served
+                    if (checker.countSolutions(givens, 2) != 1) {
+                        skipped++;
+                        continue;
+                    }
+                    out.add(grader.grade(givens).ordinal(), givens);
+                    added++;
+                }
+            }
+            System.err.printf("Packed %d puzzles in %.2fs%n", added, (System.nanoTime() - start) / 1e9);
+            if (skipped > 0) {
+                System.err.printf("Skipped %d lines without a unique solution%n", skipped);
+            }
+        } else if (args.length == 2 && args[0].equals("info")) {
+            try (PuzzleLibrary library = open(Paths.get(args[1]))) {
+                System.out.printf("%d puzzles, %d bytes each%n", library.size(), RECORD_SIZE);
+                for (int band : library.bands()) {
+                    // Band ids come from the file, so print unknown ones as numbers
+                    String name = band >= 0 && band < Difficulty.values().length
+                            ? Difficulty.values()[band].toString() : "band " + band;
+                    System.out.printf("  %s: %d%n", name, library.count(band));
+                }
+            }
+        } else {
+            System.err.println("Usage: library build <puzzles.txt> <out.lib> | library info <file>");
+            System.exit(2);
+        }
+    }
+}
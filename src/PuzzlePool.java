@@ -0,0 +1,87 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of ready-made puzzles kept full by a background daemon
+ * thread. {@link #take()} returns immediately while the pool has puzzles;
+ * taking one frees a slot, which wakes the worker to generate a
+ * replacement. If the pool is empty the caller generates one itself.
+ * Every puzzle is generated from its own seed, which it carries.
+ *
+ * Puzzles come from seed-to-puzzle functions made by a factory, one for
+ * the worker and one for callers, since generators are not thread-safe;
+ * this way variant puzzles are pooled the same way as classic ones.
+ */
+public class PuzzlePool implements AutoCloseable {
+    private final BlockingQueue<Puzzle> ready;
+    private final LongFunction<Puzzle> fallback;
+    private final SplittableRandom fallbackSeeds;
+    private final Thread worker;
+
+    public PuzzlePool(int capacity, Difficulty difficulty) {
+        this(capacity, () -> {
+            PuzzleGenerator generator = new PuzzleGenerator(new SplittableRandom());
+            return seed -> generator.generate(seed, difficulty);
+        });
+    }
+
+    /** Pools puzzles from {@code generators}, which must return a fresh function on every call. */
+    public PuzzlePool(int capacity, Supplier<LongFunction<Puzzle>> generators) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pool capacity must be at least 1");
+        }
+        this.ready = new ArrayBlockingQueue<>(capacity);
+
+        SplittableRandom seeds = new SplittableRandom();
+        this.fallback = generators.get();
+        this.fallbackSeeds = seeds.split();
+        SplittableRandom backgroundSeeds = seeds.split();
+        LongFunction<Puzzle> background = generators.get();
+        this.worker = new Thread(() -> fill(background, backgroundSeeds), "puzzle-pool");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /** Returns a pooled puzzle, or generates one on the calling thread if none is ready. */
+    public Puzzle take() {
+        Puzzle puzzle = ready.poll();
+        if (puzzle != null) return puzzle;
+        synchronized (fallback) {
+            return fallback.apply(fallbackSeeds.nextLong());
+        }
+    }
+
+    /** Number of puzzles currently ready. */
+    public int available() {
+        return ready.size();
+    }
+
+    @Override
+    public void close() {
+        worker.interrupt();
+    }
+
+    private void fill(LongFunction<Puzzle> generator, SplittableRandom seeds) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long seed = seeds.nextLong();
+                Puzzle puzzle;
+                try {
+                    puzzle = generator.apply(seed);
+                } catch (RuntimeException e) {
+                    // A dead worker would leave every take() generating on the caller's thread
+                    System.err.println("Puzzle pool could not generate seed " + seed + ": " + e);
+                    continue;
+                }
+                // put() blocks while the pool is full, so the worker idles until a take
+                ready.put(puzzle);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small JSON-over-HTTP puzzle service on the JDK's built-in server, for
+ * thin clients that should not carry a solver. Requests are stateless: a
+ * client sends the puzzle's givens back with every move or hint request,
+ * and the server re-derives the solution, which takes microseconds.
+ *
+ * <pre>
+ * GET /puzzle?difficulty=hard           a pooled puzzle of that band
+ * GET /puzzle?seed=n[&amp;difficulty=d]     the puzzle addressed by a seed
+ * GET /validate?puzzle=g&amp;cell=i&amp;value=d[&amp;board=b]
+ * GET /hint?puzzle=g[&amp;board=b]
+ * </pre>
+ *
+ * Grids are 81 characters with '.' or '0' for blanks; {@code board} holds
+ * the player's current entries. Cells are numbered 0-80 row by row. A
+ * placement hint names its cell and digit; an elimination hint lists the
+ * digits each cell loses under {@code eliminated}. Errors are answered with
+ * a 400 and an {@code error} message, unknown paths with a 404.
+ */
+public class PuzzleServer implements AutoCloseable {
+    private static final int CELLS = Puzzle.CELLS;
+    private static final Difficulty DEFAULT_DIFFICULTY = Difficulty.MEDIUM;
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+
+    // Per worker thread: the solver, generator and hint engine are not thread-safe
+    private static final ThreadLocal<BitmaskSolver> SOLVER = ThreadLocal.withInitial(BitmaskSolver::new);
+    private static final ThreadLocal<PuzzleGenerator> GENERATOR =
+            ThreadLocal.withInitial(() -> new PuzzleGenerator(new SplittableRandom()));
+    private static final ThreadLocal<HintEngine> HINTS = ThreadLocal.withInitial(HintEngine::new);
+
+    static {
+        // The server writes headers and body separately; without this, Nagle's
+        // algorithm and delayed ACKs add about 40 ms to every response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int poolSize;
+    // Created on first request, so bands nobody asks for cost no background generation
+    private final Map<Difficulty, PuzzlePool> pools = new ConcurrentHashMap<>();
+
+    public PuzzleServer(InetSocketAddress address, int threads, int poolSize) throws IOException {
+        this.poolSize = poolSize;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "puzzle-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/puzzle", handler("/puzzle", this::puzzle));
+        server.createContext("/validate", handler("/validate", PuzzleServer::validate));
+        server.createContext("/hint", handler("/hint", PuzzleServer::hint));
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = "127.0.0.1";
+        int port = 8080;
+        // Handlers are CPU-bound, but keep a few spare threads for slow clients
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        int poolSize = 16;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host": host = args[++i]; break;
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--pool": poolSize = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Usage: serve [--host addr] [--port n] [--threads n] [--pool n]");
+                    System.exit(2);
+            }
+        }
+        PuzzleServer server = new PuzzleServer(new InetSocketAddress(host, port), threads, poolSize);
+        server.start();
+        System.err.printf("Serving puzzles on http://%s:%d/ (%d threads)%n", host, server.port(), threads);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /** The bound port, useful after binding to port 0. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        for (PuzzlePool pool : pools.values()) {
+            pool.close();
+        }
+    }
+
+    private String puzzle(Map<String, String> query) {
+        String band = query.get("difficulty");
+        Difficulty difficulty = band != null ? Difficulty.parse(band) : DEFAULT_DIFFICULTY;
+        String seed = query.get("seed");
+        Puzzle puzzle = seed != null
+                ? GENERATOR.get().generate(Long.decode(seed), difficulty)
+                : pools.computeIfAbsent(difficulty, d -> new PuzzlePool(poolSize, d)).take();
+
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"seed\":").append(puzzle.seed())
+                .append(",\"difficulty\":\"").append(difficulty.name().toLowerCase(Locale.ROOT))
+                .append("\",\"givens\":\"").append(puzzle).append("\"}");
+        return json.toString();
+    }
+
+    private static String validate(Map<String, String> query) {
+        int[] givens = grid(query, "puzzle");
+        int[] solution = solve(givens);
+        int cell = Integer.parseInt(required(query, "cell"));
+        int value = Integer.parseInt(required(query, "value"));
+        if (cell < 0 || cell >= CELLS) throw new IllegalArgumentException("cell must be 0-80");
+        if (value < 1 || value > 9) throw new IllegalArgumentException("value must be 1-9");
+        if (givens[cell] != 0) throw new IllegalArgumentException(HintEngine.cellName(cell) + " is a given");
+
+        int[] board = query.containsKey("board") ? grid(query, "board") : givens;
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"correct\":").append(solution[cell] == value).append(",\"conflicts\":[");
+        // Peers already holding the value, as the board would highlight them
+        String separator = "";
+        for (int peer : GEOMETRY.peers(cell)) {
+            int placed = givens[peer] != 0 ? givens[peer] : board[peer];
+            if (placed == value) {
+                json.append(separator).append(peer);
+                separator = ",";
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String hint(Map<String, String> query) {
+        int[] givens = grid(query, "puzzle");
+        int[] solution = solve(givens);
+        int[] board = query.containsKey("board") ? grid(query, "board") : new int[CELLS];
+
+        // Same order as the game: point out a wrong entry before reasoning from the rest
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (givens[cell] == 0 && board[cell] != 0 && board[cell] != solution[cell]) {
+                return "{\"cell\":" + cell + ",\"correct\":false,\"text\":\""
+                        + HintEngine.cellName(cell) + " is not correct - clear it first\"}";
+            }
+        }
+        HintEngine hints = HINTS.get();
+        hints.load(givens, solution);
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (givens[cell] == 0 && board[cell] != 0) hints.set(cell, board[cell]);
+        }
+        HintEngine.Hint hint = hints.next();
+        if (hint == null) return "{\"solved\":true}";
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"technique\":");
+        if (hint.technique() == null) json.append("null");
+        else json.append('"').append(hint.technique().displayName()).append('"');
+        json.append(",\"cells\":[");
+        int[] cells = hint.cells();
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(cells[i]);
+        }
+        json.append(']');
+        if (hint.isPlacement()) {
+            json.append(",\"cell\":").append(hint.cell()).append(",\"digit\":").append(hint.digit());
+        } else {
+            // The candidates each cell loses, so a client can strike them as the game does
+            json.append(",\"eliminated\":[");
+            String separator = "";
+            for (int cell = 0; cell < CELLS; cell++) {
+                int mask = hint.eliminated(cell);
+                if (mask == 0) continue;
+                json.append(separator).append("{\"cell\":").append(cell).append(",\"digits\":[");
+                for (int d = 1; d <= 9; d++) {
+                    if ((mask & (1 << (d - 1))) != 0) {
+                        json.append(d);
+                        if ((mask >>> d) != 0) json.append(',');
+                    }
+                }
+                json.append("]}");
+                separator = ",";
+            }
+            json.append(']');
+        }
+        json.append(",\"text\":");
+        appendString(json, hint.describe());
+        return json.append('}').toString();
+    }
+
+    /** The unique solution of {@code givens}; rejects puzzles without exactly one. */
+    private static int[] solve(int[] givens) {
+        int[] solution = new int[CELLS];
+        if (SOLVER.get().countSolutions(givens, 2, solution) != 1) {
+            throw new IllegalArgumentException("puzzle does not have a unique solution");
+        }
+        return solution;
+    }
+
+    private static int[] grid(Map<String, String> query, String name) {
+        String text = required(query, name);
+        if (text.length() != CELLS) throw new IllegalArgumentException(name + " must have 81 cells");
+        int[] grid = new int[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '1' && ch <= '9') grid[i] = ch - '0';
+            else if (ch != '.' && ch != '0') throw new IllegalArgumentException("bad character in " + name + ": " + ch);
+        }
+        return grid;
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) throw new IllegalArgumentException("missing parameter: " + name);
+        return value;
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null) return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    // Error messages echo user input, so no raw control character may slip through
+                    if (ch < 0x20) json.append(String.format("\\u%04x", (int) ch));
+                    else json.append(ch);
+            }
+        }
+        json.append('"');
+    }
+
+    private interface Endpoint {
+        String handle(Map<String, String> query);
+    }
+
+    /**
+     * Wraps an endpoint with query parsing, method checks and error responses.
+     * Contexts match by prefix, so anything but exactly {@code path} is a 404.
+     */
+    private static HttpHandler handler(String path, Endpoint endpoint) {
+        return exchange -> {
+            try (exchange) {
+                int status = 200;
+                String body;
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    status = 404;
+                    body = "{\"error\":\"not found\"}";
+                } else if (!exchange.getRequestMethod().equals("GET")) {
+                    status = 405;
+                    body = "{\"error\":\"use GET\"}";
+                } else {
+                    try {
+                        body = endpoint.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+                    } catch (IllegalArgumentException e) {
+                        status = 400;
+                        StringBuilder json = new StringBuilder("{\"error\":");
+                        appendString(json, String.valueOf(e.getMessage()));
+                        body = json.append('}').toString();
+                    } catch (RuntimeException e) {
+                        // Still answer with a status line instead of dropping the connection
+                        System.err.println("Request " + exchange.getRequestURI() + " failed: " + e);
+                        status = 500;
+                        body = "{\"error\":\"internal error\"}";
+                    }
+                }
+                send(exchange, status, body);
+            }
+        };
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event spanning one solver search (a solve or a uniqueness count). */
+@Name("sudoku.Solve")
+@Label("Sudoku Solve")
+@Category("Sudoku")
+@Description("One backtracking or dancing-links search")
+@StackTrace(false)
+class SolveEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Cells")
+    int cells;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Solutions Found")
+    int solutions;
+}
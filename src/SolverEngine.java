@@ -0,0 +1,28 @@
+/**
+ * A Sudoku solving engine working on row-major 81-cell grids (0 = empty).
+ * Implementations keep their own scratch state and are not thread-safe.
+ */
+public interface SolverEngine {
+    /** Solves the grid in place; returns false, leaving it untouched, if unsolvable. */
+    boolean solve(int[] grid);
+
+    /** Counts solutions up to {@code limit} without modifying the grid. */
+    int countSolutions(int[] grid, int limit);
+
+    /** Search nodes visited by the most recent call. */
+    long getNodeCount();
+
+    default boolean hasUniqueSolution(int[] grid) {
+        return countSolutions(grid, 2) == 1;
+    }
+
+    /** Creates an engine by name: "bitmask", "dlx" or "parallel". */
+    static SolverEngine create(String name) {
+        switch (name) {
+            case "bitmask": return new BitmaskSolver();
+            case "dlx": return new DlxSolver();
+            case "parallel": return new ParallelSolver();
+            default: throw new IllegalArgumentException("Unknown solver engine: " + name);
+        }
+    }
+}
@@ -1,194 +1,133 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import javax.swing.*;
 import javax.swing.Timer;
-import javax.swing.border.Border;
 
 public class Sudoku {
-    // Fixed difficulty - medium level
-    private static final int CELLS_TO_REMOVE = 50;
+    // Fixed difficulty - medium level, graded by the techniques it needs
+    private static final Difficulty DIFFICULTY = Difficulty.MEDIUM;
+    // Ready puzzles kept in the background; override with -Dsudoku.poolSize=n
+    private static final int POOL_SIZE = Integer.getInteger("sudoku.poolSize", 4);
+    // -Dsudoku.variant=killer,diagonal plays variant puzzles, generated on demand
+    private static final EnumSet<Variant> VARIANTS = Variant.parseList(System.getProperty("sudoku.variant", ""));
+    private static final int VARIANT_BLANKS = Integer.getInteger("sudoku.variantBlanks", 56);
     
-    class Tile extends JButton {
-        int r, c;
-        boolean isOriginal = false;
-        boolean hasNote = false;
-        Set<Integer> notes = new HashSet<>();
-        
-        Tile(int r, int c) {
-            this.r = r;
-            this.c = c;
-            setFocusable(false);
-            setFont(new Font("Arial", Font.BOLD, 18));
-            setBackground(Color.WHITE);
-            setBorder(createTileBorder());
-            
-            // Right-click for notes
-            addMouseListener(new MouseAdapter() {
-                @Override
-                public void mouseClicked(MouseEvent e) {
-                    if (SwingUtilities.isRightMouseButton(e) && !isOriginal && getText().isEmpty()) {
-                        toggleNoteMode();
-                    }
-                }
-            });
-        }
-        
-        private Border createTileBorder() {
-            int top = (r % 3 == 0) ? 3 : 1;
-            int left = (c % 3 == 0) ? 3 : 1;
-            int bottom = (r % 3 == 2) ? 3 : 1;
-            int right = (c % 3 == 2) ? 3 : 1;
-            return BorderFactory.createMatteBorder(top, left, bottom, right, Color.BLACK);
-        }
-        
-        void updateNoteDisplay() {
-            if (hasNote && !notes.isEmpty()) {
-                StringBuilder sb = new StringBuilder("<html><div style='text-align: center; font-size: 8px;'>");
-                List<Integer> sortedNotes = new ArrayList<>(notes);
-                Collections.sort(sortedNotes);
-                for (int i = 0; i < 9; i++) {
-                    if (i % 3 == 0 && i > 0) sb.append("<br>");
-                    if (sortedNotes.contains(i + 1)) {
-                        sb.append(i + 1);
-                    } else {
-                        sb.append("&nbsp;");
-                    }
-                    if (i % 3 < 2) sb.append("&nbsp;");
-                }
-                sb.append("</div></html>");
-                setText(sb.toString());
-                setFont(new Font("Arial", Font.PLAIN, 8));
-            }
-        }
-        
-        void clearNotes() {
-            notes.clear();
-            hasNote = false;
-            setFont(new Font("Arial", Font.BOLD, 18));
-        }
-        
-        void highlightConflicts() {
-            if (!getText().isEmpty() && !hasNote) {
-                String value = getText();
-                boolean hasConflict = false;
-                
-                // Check row conflicts
-                for (int col = 0; col < 9; col++) {
-                    if (col != c && tiles[r][col].getText().equals(value) && !tiles[r][col].hasNote) {
-                        hasConflict = true;
-                        break;
-                    }
-                }
-                
-                // Check column conflicts
-                if (!hasConflict) {
-                    for (int row = 0; row < 9; row++) {
-                        if (row != r && tiles[row][c].getText().equals(value) && !tiles[row][c].hasNote) {
-                            hasConflict = true;
-                            break;
-                        }
-                    }
-                }
-                
-                // Check 3x3 box conflicts
-                if (!hasConflict) {
-                    int boxR = (r / 3) * 3;
-                    int boxC = (c / 3) * 3;
-                    for (int row = boxR; row < boxR + 3; row++) {
-                        for (int col = boxC; col < boxC + 3; col++) {
-                            if ((row != r || col != c) && tiles[row][col].getText().equals(value) && !tiles[row][col].hasNote) {
-                                hasConflict = true;
-                                break;
-                            }
-                        }
-                        if (hasConflict) break;
-                    }
-                }
-                
-                setBackground(hasConflict ? new Color(255, 200, 200) : Color.WHITE);
-            } else {
-                setBackground(Color.WHITE);
-            }
-        }
-    }
+    private static final Color CONFLICT_COLOR = new Color(255, 200, 200);
+    private static final Color HINT_COLOR = new Color(200, 255, 200);
+    private static final Color ORIGINAL_COLOR = new Color(240, 240, 240);
+    
+    private static final Font CONTROL_FONT = new Font("Arial", Font.BOLD, 16);
 
-    // Game state
+    // Game state lives in the model; the view renders its published states
+    private final GameModel model = new GameModel();
     private int boardWidth = 600;
     private int boardHeight = 700;
-    private Tile[][] tiles = new Tile[9][9];
-    private int[][] currentPuzzle = new int[9][9];
-    private int[][] solution = new int[9][9];
     private JButton numSelected = null;
-    private int errors = 0;
-    private int hintsUsed = 0;
     private boolean noteMode = false;
+    private boolean solvedShown;
     private long startTime;
     private Timer gameTimer;
-    private int elapsedSeconds = 0;
     
     // UI Components
     private JFrame frame = new JFrame("🧩 Sudoku");
     private JLabel statusLabel = new JLabel();
     private JLabel timerLabel = new JLabel();
-    private JPanel boardPanel = new JPanel();
+    private JLabel seedLabel = new JLabel();
+    private JLabel hintLabel = new JLabel(" ", SwingConstants.CENTER);
+    private BoardView board = new BoardView(3);
     private JPanel numbersPanel = new JPanel();
     private JPanel controlsPanel = new JPanel();
-    private JButton hintButton, undoButton, resetButton, newGameButton, noteModeButton;
-    private Stack<GameState> undoStack = new Stack<>();
+    private JButton hintButton, undoButton, redoButton, resetButton, newGameButton, openSeedButton, noteModeButton;
+    private final Supplier<Puzzle> puzzleSource = createPuzzleSource();
+    // Regenerates shared puzzles from their seed; the current one is shown in seedLabel
+    private final PuzzleGenerator seedGenerator = new PuzzleGenerator(new SplittableRandom());
+    private final VariantGenerator variantSeedGenerator = new VariantGenerator(VARIANTS, new SplittableRandom());
+    // Saves after every move on a background thread; -Dsudoku.save=file overrides the location
+    private final AutoSaver autoSaver = new AutoSaver(AutoSaver.defaultPath());
     
-    // Game state for undo functionality
-    class GameState {
-        int[][] puzzleState = new int[9][9];
-        int errorsCount;
-        int hintsCount;
-        
-        GameState(int[][] puzzle, int errors, int hints) {
-            for (int i = 0; i < 9; i++) {
-                System.arraycopy(puzzle[i], 0, puzzleState[i], 0, 9);
-            }
-            this.errorsCount = errors;
-            this.hintsCount = hints;
-        }
-    }
-
     public Sudoku() {
         initializeUI();
-        generateNewPuzzle();
+        model.addListener(state -> {
+            if (SwingUtilities.isEventDispatchThread()) render(state);
+            else SwingUtilities.invokeLater(() -> render(state));
+        });
+        model.addListener(this::saveGame);
+        if (!restoreGame()) {
+            generateNewPuzzle();
+        }
         startTimer();
     }
     
+    private static Supplier<Puzzle> createPuzzleSource() {
+        if (!VARIANTS.isEmpty()) {
+            // Generated in the background like classic puzzles, seeded so they can be shared too
+            PuzzlePool variantPool = new PuzzlePool(POOL_SIZE, () -> {
+                VariantGenerator generator = new VariantGenerator(VARIANTS, new SplittableRandom());
+                return seed -> generator.generate(seed, VARIANT_BLANKS);
+            });
+            return variantPool::take;
+        }
+        // -Dsudoku.library=file serves puzzles from a packed library instead
+        String libraryPath = System.getProperty("sudoku.library");
+        if (libraryPath != null) {
+            try {
+                PuzzleLibrary library = PuzzleLibrary.open(Paths.get(libraryPath));
+                if (library.count(DIFFICULTY.ordinal()) > 0) {
+                    SplittableRandom random = new SplittableRandom();
+                    return () -> library.random(DIFFICULTY.ordinal(), random);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not open puzzle library: " + e.getMessage());
+            }
+        }
+        PuzzlePool pool = new PuzzlePool(POOL_SIZE, DIFFICULTY);
+        return pool::take;
+    }
+    
     private void initializeUI() {
         // Main frame setup
         frame.setSize(boardWidth, boardHeight);
-        frame.setResizable(false);
+        frame.setMinimumSize(new Dimension(480, 560));
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLocationRelativeTo(null);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Capture the timer too, then wait for the last write before exiting
+                saveGame(model.state());
+                autoSaver.close();
+            }
+        });
         frame.setLayout(new BorderLayout());
         
         // Top panel with status and timer
         JPanel topPanel = new JPanel(new BorderLayout());
         
         JPanel statusPanel = new JPanel(new FlowLayout());
-        statusLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        statusLabel.setFont(CONTROL_FONT);
         statusLabel.setText("Errors: 0");
-        timerLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        timerLabel.setFont(CONTROL_FONT);
         timerLabel.setText("Time: 00:00");
         
         statusPanel.add(statusLabel);
         statusPanel.add(Box.createHorizontalStrut(20));
         statusPanel.add(timerLabel);
+        statusPanel.add(Box.createHorizontalStrut(20));
+        statusPanel.add(seedLabel);
         
         topPanel.add(statusPanel, BorderLayout.CENTER);
+        topPanel.add(hintLabel, BorderLayout.SOUTH);
         frame.add(topPanel, BorderLayout.NORTH);
         
         // Game board
-        boardPanel.setLayout(new GridLayout(9, 9, 1, 1));
-        boardPanel.setBackground(Color.BLACK);
-        boardPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        board.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         setupBoard();
-        frame.add(boardPanel, BorderLayout.CENTER);
+        frame.add(board, BorderLayout.CENTER);
         
         // Bottom panel with controls and numbers
         JPanel bottomPanel = new JPanel(new BorderLayout());
@@ -207,20 +146,14 @@ public class Sudoku {
     }
     
     private void setupBoard() {
-        boardPanel.removeAll();
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                Tile tile = new Tile(r, c);
-                tiles[r][c] = tile;
-                
-                tile.addActionListener(e -> {
-                    Tile clickedTile = (Tile) e.getSource();
-                    handleTileClick(clickedTile);
-                });
-                
-                boardPanel.add(tile);
+        board.setCellListener((cell, secondary) -> {
+            if (!secondary) {
+                handleCellClick(cell);
+            } else if (!model.state().isGiven(cell) && model.state().value(cell) == 0) {
+                // Right-click on an empty cell toggles note mode
+                toggleNoteMode();
             }
-        }
+        });
     }
     
     private void setupControls() {
@@ -230,12 +163,18 @@ public class Sudoku {
         newGameButton = new JButton("New Game");
         newGameButton.addActionListener(e -> generateNewPuzzle());
         
+        openSeedButton = new JButton("Open Seed");
+        openSeedButton.addActionListener(e -> openSeed());
+        
         hintButton = new JButton("Hint");
         hintButton.addActionListener(e -> provideHint());
         
         undoButton = new JButton("Undo");
         undoButton.addActionListener(e -> undoMove());
         
+        redoButton = new JButton("Redo");
+        redoButton.addActionListener(e -> redoMove());
+        
         resetButton = new JButton("Reset");
         resetButton.addActionListener(e -> resetPuzzle());
         
@@ -243,8 +182,10 @@ public class Sudoku {
         noteModeButton.addActionListener(e -> toggleNoteMode());
         
         controlsPanel.add(newGameButton);
+        controlsPanel.add(openSeedButton);
         controlsPanel.add(hintButton);
         controlsPanel.add(undoButton);
+        controlsPanel.add(redoButton);
         controlsPanel.add(resetButton);
         controlsPanel.add(noteModeButton);
     }
@@ -255,7 +196,7 @@ public class Sudoku {
         
         // Clear button
         JButton clearButton = new JButton("Clear");
-        clearButton.setFont(new Font("Arial", Font.BOLD, 16));
+        clearButton.setFont(CONTROL_FONT);
         clearButton.addActionListener(e -> {
             if (numSelected != null) {
                 numSelected.setBackground(Color.WHITE);
@@ -268,7 +209,7 @@ public class Sudoku {
         // Number buttons 1-9
         for (int i = 1; i <= 9; i++) {
             JButton button = new JButton(String.valueOf(i));
-            button.setFont(new Font("Arial", Font.BOLD, 16));
+            button.setFont(CONTROL_FONT);
             button.setBackground(Color.WHITE);
             button.addActionListener(e -> {
                 if (numSelected != null) {
@@ -281,126 +222,64 @@ public class Sudoku {
         }
     }
     
-    private void handleTileClick(Tile tile) {
-        if (tile.isOriginal || numSelected == null) return;
-        
-        saveGameState();
-        
+    private void handleCellClick(int cell) {
+        if (model.state().isGiven(cell) || numSelected == null) return;
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         String selectedValue = numSelected.getText();
-        
         if (selectedValue.equals("Clear")) {
-            tile.setText("");
-            tile.clearNotes();
-            tile.setBackground(Color.WHITE);
-            updateAllHighlights();
-            return;
-        }
-        
-        if (noteMode && !tile.hasNote) {
-            // Toggle note
-            int num = Integer.parseInt(selectedValue);
-            if (tile.notes.contains(num)) {
-                tile.notes.remove(num);
-            } else {
-                tile.notes.add(num);
-            }
-            
-            if (tile.notes.isEmpty()) {
-                tile.setText("");
-                tile.hasNote = false;
-                tile.setFont(new Font("Arial", Font.BOLD, 18));
-            } else {
-                tile.hasNote = true;
-                tile.updateNoteDisplay();
-            }
+            model.clear(cell);
+        } else if (noteMode) {
+            model.toggleNote(cell, Integer.parseInt(selectedValue));
         } else {
-            // Place number
-            tile.clearNotes();
-            tile.setText(selectedValue);
-            
-            // Check if correct
-            int value = Integer.parseInt(selectedValue);
-            if (solution[tile.r][tile.c] != value) {
-                errors++;
-                statusLabel.setText("Errors: " + errors);
-                tile.setBackground(new Color(255, 200, 200));
-            } else {
-                currentPuzzle[tile.r][tile.c] = value;
-                tile.setBackground(Color.WHITE);
-            }
-            
-            updateAllHighlights();
-            checkWinCondition();
+            model.place(cell, Integer.parseInt(selectedValue));
         }
+        // The win dialog is posted to run later, so it stays outside the timed section
+        if (Metrics.ENABLED) Metrics.MOVE.recordSince(start);
     }
     
-    private void updateAllHighlights() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                tiles[r][c].highlightConflicts();
-            }
+    private void render(GameState state) {
+        renderBoard(board, state);
+        statusLabel.setText("Errors: " + state.errors());
+        hintLabel.setText(state.message() != null ? state.message() : " ");
+        seedLabel.setText(state.hasSeed() ? "Seed: " + state.seed() : "");
+        
+        if (state.isSolved() && !solvedShown) {
+            solvedShown = true;
+            if (gameTimer != null) gameTimer.stop();
+            SwingUtilities.invokeLater(() -> showWinDialog(state));
+        } else if (!state.isSolved()) {
+            solvedShown = false;
         }
     }
     
-    private void saveGameState() {
-        undoStack.push(new GameState(currentPuzzle, errors, hintsUsed));
-        if (undoStack.size() > 50) { // Limit undo history
-            undoStack.removeElementAt(0);
+    /** Shows a published state; only cells that differ from the board are repainted. */
+    static void renderBoard(BoardView board, GameState state) {
+        board.setRules(state.rules());
+        for (int cell = 0; cell < 81; cell++) {
+            board.setOriginal(cell, state.isGiven(cell));
+            board.setValue(cell, state.value(cell));
+            if (state.value(cell) == 0) board.setNotes(cell, state.notes(cell));
+            board.setShade(cell, shadeOf(state, cell));
         }
     }
     
+    private static Color shadeOf(GameState state, int cell) {
+        if (state.isConflict(cell) || state.isWrong(cell)) return CONFLICT_COLOR;
+        if (state.isGiven(cell)) return ORIGINAL_COLOR;
+        if (state.isHinted(cell) || state.isHighlighted(cell)) return HINT_COLOR;
+        return Color.WHITE;
+    }
+    
     private void undoMove() {
-        if (!undoStack.isEmpty()) {
-            GameState lastState = undoStack.pop();
-            
-            // Restore puzzle state
-            for (int r = 0; r < 9; r++) {
-                for (int c = 0; c < 9; c++) {
-                    currentPuzzle[r][c] = lastState.puzzleState[r][c];
-                    if (!tiles[r][c].isOriginal) {
-                        if (currentPuzzle[r][c] == 0) {
-                            tiles[r][c].setText("");
-                            tiles[r][c].clearNotes();
-                        } else {
-                            tiles[r][c].setText(String.valueOf(currentPuzzle[r][c]));
-                            tiles[r][c].clearNotes();
-                        }
-                    }
-                }
-            }
-            
-            errors = lastState.errorsCount;
-            hintsUsed = lastState.hintsCount;
-            statusLabel.setText("Errors: " + errors);
-            updateAllHighlights();
-        }
+        model.undo();
+    }
+    
+    private void redoMove() {
+        model.redo();
     }
     
     private void provideHint() {
-        // Find empty cells
-        List<Point> emptyCells = new ArrayList<>();
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (currentPuzzle[r][c] == 0 && !tiles[r][c].isOriginal) {
-                    emptyCells.add(new Point(r, c));
-                }
-            }
-        }
-        
-        if (!emptyCells.isEmpty()) {
-            saveGameState();
-            Point hint = emptyCells.get(new Random().nextInt(emptyCells.size()));
-            int r = hint.x, c = hint.y;
-            
-            tiles[r][c].clearNotes();
-            tiles[r][c].setText(String.valueOf(solution[r][c]));
-            tiles[r][c].setBackground(new Color(200, 255, 200)); // Green hint color
-            currentPuzzle[r][c] = solution[r][c];
-            
-            hintsUsed++;
-            updateAllHighlights();
-            checkWinCondition();
-        }
+        model.hint();
     }
     
     private void toggleNoteMode() {
@@ -410,174 +289,99 @@ public class Sudoku {
     }
     
     private void resetPuzzle() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (!tiles[r][c].isOriginal) {
-                    tiles[r][c].setText("");
-                    tiles[r][c].clearNotes();
-                    tiles[r][c].setBackground(Color.WHITE);
-                    currentPuzzle[r][c] = 0;
-                }
-            }
-        }
-        errors = 0;
-        hintsUsed = 0;
-        statusLabel.setText("Errors: 0");
-        undoStack.clear();
-        elapsedSeconds = 0;
+        model.reset();
         startTimer();
     }
     
     private void generateNewPuzzle() {
-        // Generate a complete solved puzzle
-        generateSolution();
-        
-        // Create a copy for the puzzle
-        for (int r = 0; r < 9; r++) {
-            System.arraycopy(solution[r], 0, currentPuzzle[r], 0, 9);
-        }
-        
-        // Remove cells based on difficulty
-        removeCells(CELLS_TO_REMOVE);
-        
-        // Update the board
-        updateBoardDisplay();
-        
-        // Reset game state
-        errors = 0;
-        hintsUsed = 0;
-        statusLabel.setText("Errors: 0");
-        undoStack.clear();
-        elapsedSeconds = 0;
-        startTimer();
+        // Take a pre-generated puzzle from the library or the background pool
+        startPuzzle(puzzleSource.get());
     }
     
-    private void generateSolution() {
-        // Clear the solution grid
-        for (int r = 0; r < 9; r++) {
-            Arrays.fill(solution[r], 0);
+    /** Asks for a seed and opens the puzzle it addresses at the game's difficulty or variant. */
+    private void openSeed() {
+        GameState state = model.state();
+        String input = (String) JOptionPane.showInputDialog(frame, "Puzzle seed:", "Open Seed",
+                JOptionPane.QUESTION_MESSAGE, null, null, state.hasSeed() ? String.valueOf(state.seed()) : "");
+        if (input == null || input.isBlank()) return;
+        long requested;
+        try {
+            requested = Long.decode(input.trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(frame, "Not a seed: " + input, "Open Seed", JOptionPane.ERROR_MESSAGE);
+            return;
         }
-        
-        // Fill the grid using backtracking
-        solvePuzzle(solution);
-    }
-    
-    private boolean solvePuzzle(int[][] grid) {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (grid[r][c] == 0) {
-                    List<Integer> numbers = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
-                    Collections.shuffle(numbers);
-                    
-                    for (int num : numbers) {
-                        if (isValidMove(grid, r, c, num)) {
-                            grid[r][c] = num;
-                            if (solvePuzzle(grid)) {
-                                return true;
-                            }
-                            grid[r][c] = 0;
-                        }
-                    }
-                    return false;
+        // Hard bands can take a while, so generate off the EDT and keep the button off meanwhile
+        openSeedButton.setEnabled(false);
+        frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Puzzle, Void>() {
+            @Override
+            protected Puzzle doInBackground() {
+                return VARIANTS.isEmpty() ? seedGenerator.generate(requested, DIFFICULTY)
+                        : variantSeedGenerator.generate(requested, VARIANT_BLANKS);
+            }
+
+            @Override
+            protected void done() {
+                frame.setCursor(Cursor.getDefaultCursor());
+                openSeedButton.setEnabled(true);
+                try {
+                    startPuzzle(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(frame, "Could not open seed " + requested + ": " + e.getMessage(),
+                            "Open Seed", JOptionPane.ERROR_MESSAGE);
                 }
             }
-        }
-        return true;
+        }.execute();
     }
     
-    private boolean isValidMove(int[][] grid, int row, int col, int num) {
-        // Check row
-        for (int c = 0; c < 9; c++) {
-            if (grid[row][c] == num) return false;
-        }
-        
-        // Check column
-        for (int r = 0; r < 9; r++) {
-            if (grid[r][col] == num) return false;
-        }
-        
-        // Check 3x3 box
-        int boxRow = (row / 3) * 3;
-        int boxCol = (col / 3) * 3;
-        for (int r = boxRow; r < boxRow + 3; r++) {
-            for (int c = boxCol; c < boxCol + 3; c++) {
-                if (grid[r][c] == num) return false;
-            }
-        }
-        
-        return true;
+    private void startPuzzle(Puzzle puzzle) {
+        model.start(puzzle);
+        startTimer();
     }
     
-    private void removeCells(int cellsToRemove) {
-        Random random = new Random();
-        int removed = 0;
-        
-        while (removed < cellsToRemove) {
-            int r = random.nextInt(9);
-            int c = random.nextInt(9);
-            
-            if (currentPuzzle[r][c] != 0) {
-                currentPuzzle[r][c] = 0;
-                removed++;
-            }
+    /** Queues the game for the background autosave; a finished game is removed instead. */
+    private void saveGame(GameState state) {
+        if (state.isSolved()) {
+            autoSaver.delete();
+            return;
         }
+        autoSaver.save(model::save);
     }
     
-    private void updateBoardDisplay() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                Tile tile = tiles[r][c];
-                
-                if (currentPuzzle[r][c] != 0) {
-                    tile.setText(String.valueOf(currentPuzzle[r][c]));
-                    tile.setBackground(new Color(240, 240, 240));
-                    tile.isOriginal = true;
-                    tile.setFont(new Font("Arial", Font.BOLD, 18));
-                } else {
-                    tile.setText("");
-                    tile.setBackground(Color.WHITE);
-                    tile.isOriginal = false;
-                    tile.clearNotes();
-                }
-            }
+    /** Resumes the autosaved game, if there is a usable one. */
+    private boolean restoreGame() {
+        GameSnapshot saved = autoSaver.load();
+        if (saved == null) return false;
+        if (!model.restore(saved)) {
+            System.err.println("Ignoring saved game: givens do not match the solution");
+            return false;
         }
+        int elapsedSeconds = model.elapsedSeconds();
+        timerLabel.setText(String.format("Time: %02d:%02d", elapsedSeconds / 60, elapsedSeconds % 60));
+        return true;
     }
     
-    private void checkWinCondition() {
-        boolean isComplete = true;
-        
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (currentPuzzle[r][c] == 0 || 
-                    !tiles[r][c].getText().equals(String.valueOf(solution[r][c]))) {
-                    isComplete = false;
-                    break;
-                }
-            }
-            if (!isComplete) break;
-        }
-        
-        if (isComplete) {
-            gameTimer.stop();
-            String timeStr = String.format("%02d:%02d", elapsedSeconds / 60, elapsedSeconds % 60);
-            String message = String.format(
-                "🎉 Congratulations! 🎉\n\n" +
-                "Puzzle completed!\n" +
-                "Time: %s\n" +
-                "Errors: %d\n" +
-                "Hints used: %d\n\n" +
-                "Would you like to play again?",
-                timeStr, errors, hintsUsed
-            );
-            
-            int choice = JOptionPane.showConfirmDialog(
-                frame, message, "Puzzle Complete!", 
-                JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE
-            );
-            
-            if (choice == JOptionPane.YES_OPTION) {
-                generateNewPuzzle();
-            }
+    private void showWinDialog(GameState state) {
+        int elapsedSeconds = model.elapsedSeconds();
+        String timeStr = String.format("%02d:%02d", elapsedSeconds / 60, elapsedSeconds % 60);
+        String message = String.format(
+            "🎉 Congratulations! 🎉\n\n" +
+            "Puzzle completed!\n" +
+            "Time: %s\n" +
+            "Errors: %d\n" +
+            "Hints used: %d\n\n" +
+            "Would you like to play again?",
+            timeStr, state.errors(), state.hintsUsed()
+        );
+        
+        int choice = JOptionPane.showConfirmDialog(
+            frame, message, "Puzzle Complete!",
+            JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE
+        );
+        
+        if (choice == JOptionPane.YES_OPTION) {
+            generateNewPuzzle();
         }
     }
     
@@ -588,10 +392,10 @@ public class Sudoku {
         
         startTime = System.currentTimeMillis();
         gameTimer = new Timer(1000, e -> {
-            elapsedSeconds++;
+            int elapsedSeconds = model.tick();
             String timeStr = String.format("Time: %02d:%02d", elapsedSeconds / 60, elapsedSeconds % 60);
             timerLabel.setText(timeStr);
         });
         gameTimer.start();
     }
-}
\ No newline at end of file
+}
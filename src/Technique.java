@@ -0,0 +1,28 @@
+/** Human solving techniques in the order the logical solver tries them. */
+public enum Technique {
+    NAKED_SINGLE("Naked Single", Difficulty.EASY),
+    HIDDEN_SINGLE("Hidden Single", Difficulty.EASY),
+    LOCKED_CANDIDATES("Locked Candidates", Difficulty.MEDIUM),
+    NAKED_PAIR("Naked Pair", Difficulty.MEDIUM),
+    HIDDEN_PAIR("Hidden Pair", Difficulty.MEDIUM),
+    NAKED_TRIPLE("Naked Triple", Difficulty.HARD),
+    HIDDEN_TRIPLE("Hidden Triple", Difficulty.HARD),
+    X_WING("X-Wing", Difficulty.HARD),
+    SWORDFISH("Swordfish", Difficulty.HARD);
+
+    private final String displayName;
+    private final Difficulty difficulty;
+
+    Technique(String displayName, Difficulty difficulty) {
+        this.displayName = displayName;
+        this.difficulty = difficulty;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    public Difficulty difficulty() {
+        return difficulty;
+    }
+}
@@ -0,0 +1,23 @@
+import java.util.EnumSet;
+import java.util.Locale;
+
+/** Extra rule families that can be layered on a classic 9x9 puzzle. */
+public enum Variant {
+    /** Both main diagonals hold 1-9 once each. */
+    DIAGONAL,
+    /** Four extra 3x3 windows, offset one cell from the boxes, hold 1-9 once each. */
+    WINDOKU,
+    /** Cages of cells whose digits differ and add up to the cage's sum. */
+    KILLER,
+    /** Marked cells must hold an even or an odd digit. */
+    PARITY;
+
+    /** Parses a comma-separated, case-insensitive list such as "diagonal,killer". */
+    public static EnumSet<Variant> parseList(String names) {
+        EnumSet<Variant> variants = EnumSet.noneOf(Variant.class);
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) variants.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return variants;
+    }
+}
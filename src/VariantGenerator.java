@@ -0,0 +1,182 @@
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates 9x9 puzzles with variant rules. The solution is a random fill
+ * under the region rules (diagonals, windoku); killer cages and parity
+ * marks are then drawn from that solution, so any cage layout is
+ * consistent. Cells are dug while a budgeted uniqueness check under the
+ * full rules still proves a single solution; an undecided check keeps the
+ * clue, which bounds generation time. Killer puzzles usually end up with
+ * few givens because the cage sums carry most of the information.
+ *
+ * All randomness comes from the generator's {@link RandomGenerator}; see
+ * {@link #generate(long, int)}. An instance is not thread-safe.
+ */
+public class VariantGenerator {
+    private static final int CELLS = Puzzle.CELLS;
+    private static final int FILL_ATTEMPTS = 16;
+    private static final long FILL_BUDGET = 10_000;
+    private static final long CHECK_BUDGET = 4_000;
+    private static final int MAX_CAGE = 5;
+    private static final int PARITY_MARKS = 20;
+    // Orthogonal neighbours as row and column steps
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+
+    private final Set<Variant> variants;
+    private RandomGenerator random;
+    private final int[] order = new int[CELLS];
+
+    public VariantGenerator(Set<Variant> variants, RandomGenerator random) {
+        this.variants = variants.isEmpty() ? EnumSet.noneOf(Variant.class) : EnumSet.copyOf(variants);
+        this.random = random;
+    }
+
+    /** Replaces the random source, e.g. to reseed per puzzle. */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /** The puzzle addressed by {@code seed}: the same seed and variants always give the same puzzle. */
+    public Puzzle generate(long seed, int cellsToRemove) {
+        setRandom(new SplittableRandom(seed));
+        return generate(cellsToRemove).withSeed(seed);
+    }
+
+    /** Generates a unique variant puzzle with up to {@code cellsToRemove} blanks. */
+    public Puzzle generate(int cellsToRemove) {
+        GenerationEvent event = Metrics.beginGeneration();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        boolean diagonals = variants.contains(Variant.DIAGONAL);
+        boolean windoku = variants.contains(Variant.WINDOKU);
+        int[] solution = new int[CELLS];
+        generateSolution(new VariantRules(diagonals, windoku, new int[0][], new int[0], new int[0]), solution);
+
+        int[][] cages = new int[0][];
+        int[] sums = new int[0];
+        if (variants.contains(Variant.KILLER)) {
+            cages = drawCages(solution);
+            sums = new int[cages.length];
+            for (int k = 0; k < cages.length; k++) {
+                for (int cell : cages[k]) sums[k] += solution[cell];
+            }
+        }
+        int[] parity = variants.contains(Variant.PARITY) ? drawParity(solution) : new int[0];
+        VariantRules rules = new VariantRules(diagonals, windoku, cages, sums, parity);
+
+        int[] givens = solution.clone();
+        int removed = removeCells(rules, givens, cellsToRemove);
+        Metrics.generationFinished(event, start, null, CELLS - removed, 1);
+        return new Puzzle(givens, solution).withRules(rules);
+    }
+
+    /** Fills the grid with a random solution of the region rules. */
+    void generateSolution(VariantRules regions, int[] grid) {
+        VariantSolver solver = new VariantSolver(regions);
+        solver.setRandom(random);
+        solver.setNodeLimit(FILL_BUDGET);
+        for (int attempt = 0; attempt < FILL_ATTEMPTS; attempt++) {
+            Arrays.fill(grid, 0);
+            if (solver.solve(grid)) return;
+        }
+        throw new IllegalStateException("No solution for " + regions + " after " + FILL_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Partitions the grid into cages of 1 to {@value #MAX_CAGE} orthogonally
+     * connected cells without repeated digits, grown from random seeds.
+     */
+    private int[][] drawCages(int[] solution) {
+        int[] cageOf = new int[CELLS];
+        Arrays.fill(cageOf, -1);
+        shuffleOrder();
+        int[][] cages = new int[CELLS][];
+        int count = 0;
+        int[] cage = new int[MAX_CAGE];
+        int[] frontier = new int[4 * MAX_CAGE];
+        for (int i = 0; i < CELLS; i++) {
+            int first = order[i];
+            if (cageOf[first] >= 0) continue;
+            int target = 2 + random.nextInt(MAX_CAGE - 1);
+            int size = 0;
+            int digits = 0;
+            cage[size++] = first;
+            cageOf[first] = count;
+            digits |= 1 << (solution[first] - 1);
+            while (size < target) {
+                int options = 0;
+                for (int j = 0; j < size; j++) {
+                    int r = cage[j] / 9, c = cage[j] % 9;
+                    for (int d = 0; d < 4; d++) {
+                        int nr = r + DR[d], nc = c + DC[d];
+                        if (nr < 0 || nr >= 9 || nc < 0 || nc >= 9) continue;
+                        int next = nr * 9 + nc;
+                        if (cageOf[next] < 0 && (digits & (1 << (solution[next] - 1))) == 0) {
+                            frontier[options++] = next;
+                        }
+                    }
+                }
+                if (options == 0) break;
+                int next = frontier[random.nextInt(options)];
+                cage[size++] = next;
+                cageOf[next] = count;
+                digits |= 1 << (solution[next] - 1);
+            }
+            cages[count++] = Arrays.copyOf(cage, size);
+        }
+        return Arrays.copyOf(cages, count);
+    }
+
+    private int[] drawParity(int[] solution) {
+        int[] parity = new int[CELLS];
+        shuffleOrder();
+        for (int i = 0; i < PARITY_MARKS; i++) {
+            int cell = order[i];
+            parity[cell] = solution[cell] % 2 == 0 ? VariantRules.EVEN : VariantRules.ODD;
+        }
+        return parity;
+    }
+
+    /**
+     * Blanks cells in random order, keeping a removal only if the budgeted
+     * check proves the grid still unique under {@code rules}. Returns the
+     * number removed.
+     */
+    int removeCells(VariantRules rules, int[] grid, int cellsToRemove) {
+        VariantSolver checker = new VariantSolver(rules);
+        checker.setNodeLimit(CHECK_BUDGET);
+        shuffleOrder();
+        int removed = 0;
+        int rejected = 0;
+        for (int i = 0; i < CELLS && removed < cellsToRemove; i++) {
+            int cell = order[i];
+            int value = grid[cell];
+            if (value == 0) continue;
+            grid[cell] = 0;
+            if (checker.countSolutions(grid, 2) == 1) {
+                removed++;
+            } else {
+                grid[cell] = value;
+                rejected++;
+            }
+        }
+        if (Metrics.ENABLED) Metrics.REJECTED_REMOVALS.add(rejected);
+        return removed;
+    }
+
+    private void shuffleOrder() {
+        for (int i = 0; i < CELLS; i++) {
+            order[i] = i;
+        }
+        for (int i = CELLS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+    }
+}
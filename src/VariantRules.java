@@ -0,0 +1,382 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The constraints of a 9x9 puzzle as precomputed tables: the 27 classic
+ * units plus any diagonal, windoku and cage units, the units and peers of
+ * every cell, cage sums and per-cell digit masks for parity marks. Solvers
+ * and move checks only read these tables, so every variant goes through
+ * the same code as classic rules. Instances are immutable.
+ *
+ * Rules are written as ';'-separated tokens, e.g.
+ * {@code diagonal;cage=15:0.1.9;even=40}; see {@link #parse}.
+ */
+public final class VariantRules {
+    public static final int EVEN = 1;
+    public static final int ODD = 2;
+
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3);
+    private static final int CELLS = Puzzle.CELLS;
+    private static final int ALL_DIGITS = 0x1FF;
+    private static final int EVEN_DIGITS = 0b010101010;
+    private static final int ODD_DIGITS = ALL_DIGITS & ~EVEN_DIGITS;
+    // Top-left cells of the four windoku windows
+    private static final int[] WINDOWS = {10, 14, 46, 50};
+    // COMBOS[count * 46 + sum]: masks of 'count' distinct digits adding up to 'sum'
+    private static final int[][] COMBOS = new int[10 * 46][];
+
+    static {
+        List<List<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i < COMBOS.length; i++) {
+            lists.add(new ArrayList<>());
+        }
+        for (int mask = 0; mask <= ALL_DIGITS; mask++) {
+            int sum = 0;
+            for (int d = 1; d <= 9; d++) {
+                if ((mask & (1 << (d - 1))) != 0) sum += d;
+            }
+            lists.get(Integer.bitCount(mask) * 46 + sum).add(mask);
+        }
+        for (int i = 0; i < COMBOS.length; i++) {
+            COMBOS[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public static final VariantRules CLASSIC = new VariantRules(false, false, new int[0][], new int[0], new int[0]);
+
+    private final boolean diagonals;
+    private final boolean windoku;
+    private final int[][] cages;
+    private final int[] cageSums;
+    private final int[] parity;
+
+    private final int[][] units;
+    private final int firstCageUnit;
+    private final int[][] unitsOf;
+    private final int[][] peers;
+    private final int[] cageOf;
+    private final int[] allowed;
+    private final boolean classic;
+
+    /**
+     * @param cages    cells of each killer cage; cages must not overlap
+     * @param cageSums the sum of each cage
+     * @param parity   {@link #EVEN}, {@link #ODD} or 0 per cell, or an empty array for none
+     */
+    public VariantRules(boolean diagonals, boolean windoku, int[][] cages, int[] cageSums, int[] parity) {
+        if (cages.length != cageSums.length) {
+            throw new IllegalArgumentException("Every cage needs a sum");
+        }
+        if (parity.length != 0 && parity.length != CELLS) {
+            throw new IllegalArgumentException("Parity marks must cover " + CELLS + " cells");
+        }
+        this.diagonals = diagonals;
+        this.windoku = windoku;
+        this.cages = new int[cages.length][];
+        for (int k = 0; k < cages.length; k++) {
+            this.cages[k] = cages[k].clone();
+        }
+        this.cageSums = cageSums.clone();
+        this.parity = parity.length == 0 ? new int[CELLS] : parity.clone();
+
+        List<int[]> all = new ArrayList<>();
+        for (int u = 0; u < GEOMETRY.unitCount(); u++) {
+            all.add(GEOMETRY.unit(u));
+        }
+        if (diagonals) {
+            int[] main = new int[9], anti = new int[9];
+            for (int i = 0; i < 9; i++) {
+                main[i] = i * 10;
+                anti[i] = i * 8 + 8;
+            }
+            all.add(main);
+            all.add(anti);
+        }
+        if (windoku) {
+            for (int corner : WINDOWS) {
+                int[] window = new int[9];
+                for (int i = 0; i < 9; i++) {
+                    window[i] = corner + (i / 3) * 9 + i % 3;
+                }
+                all.add(window);
+            }
+        }
+        firstCageUnit = all.size();
+        cageOf = new int[CELLS];
+        Arrays.fill(cageOf, -1);
+        for (int k = 0; k < cages.length; k++) {
+            int[] cage = this.cages[k];
+            if (cage.length == 0 || cage.length > 9 || cageSums[k] < minSum(cage.length) || cageSums[k] > maxSum(cage.length)) {
+                throw new IllegalArgumentException("Impossible cage: " + cage.length + " cells summing to " + cageSums[k]);
+            }
+            for (int cell : cage) {
+                if (cageOf[cell] >= 0) throw new IllegalArgumentException("Cages overlap at cell " + cell);
+                cageOf[cell] = k;
+            }
+            all.add(cage);
+        }
+        units = all.toArray(new int[0][]);
+
+        // Units and peers per cell, derived from the unit list so extra units need no special cases
+        int[] unitCounts = new int[CELLS];
+        for (int[] unit : units) {
+            for (int cell : unit) unitCounts[cell]++;
+        }
+        unitsOf = new int[CELLS][];
+        for (int cell = 0; cell < CELLS; cell++) {
+            unitsOf[cell] = new int[unitCounts[cell]];
+            unitCounts[cell] = 0;
+        }
+        for (int u = 0; u < units.length; u++) {
+            for (int cell : units[u]) unitsOf[cell][unitCounts[cell]++] = u;
+        }
+        peers = new int[CELLS][];
+        boolean[] seen = new boolean[CELLS];
+        int[] scratch = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            Arrays.fill(seen, false);
+            seen[cell] = true;
+            int n = 0;
+            for (int u : unitsOf[cell]) {
+                for (int peer : units[u]) {
+                    if (!seen[peer]) {
+                        seen[peer] = true;
+                        scratch[n++] = peer;
+                    }
+                }
+            }
+            peers[cell] = Arrays.copyOf(scratch, n);
+            Arrays.sort(peers[cell]);
+        }
+
+        allowed = new int[CELLS];
+        boolean marked = false;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int mark = this.parity[cell];
+            allowed[cell] = mark == EVEN ? EVEN_DIGITS : mark == ODD ? ODD_DIGITS : ALL_DIGITS;
+            marked |= mark != 0;
+        }
+        classic = units.length == GEOMETRY.unitCount() && !marked;
+    }
+
+    /** Parses the text form written by {@link #toString()}; an empty string is classic rules. */
+    public static VariantRules parse(String text) {
+        boolean diagonals = false, windoku = false;
+        List<int[]> cages = new ArrayList<>();
+        List<Integer> sums = new ArrayList<>();
+        int[] parity = new int[CELLS];
+        for (String token : text.split(";")) {
+            token = token.trim();
+            if (token.isEmpty()) continue;
+            int eq = token.indexOf('=');
+            String key = eq < 0 ? token : token.substring(0, eq);
+            String value = eq < 0 ? "" : token.substring(eq + 1);
+            switch (key) {
+                case "diagonal": diagonals = true; break;
+                case "windoku": windoku = true; break;
+                case "cage": {
+                    int colon = value.indexOf(':');
+                    if (colon < 0) throw new IllegalArgumentException("Cage needs sum:cells: " + token);
+                    sums.add(Integer.parseInt(value.substring(0, colon)));
+                    cages.add(parseCells(value.substring(colon + 1)));
+                    break;
+                }
+                case "even":
+                case "odd":
+                    for (int cell : parseCells(value)) {
+                        parity[cell] = key.equals("even") ? EVEN : ODD;
+                    }
+                    break;
+                default: throw new IllegalArgumentException("Unknown rule: " + token);
+            }
+        }
+        int[] cageSums = sums.stream().mapToInt(Integer::intValue).toArray();
+        return new VariantRules(diagonals, windoku, cages.toArray(new int[0][]), cageSums, parity);
+    }
+
+    private static int[] parseCells(String text) {
+        String[] parts = text.split("\\.");
+        int[] cells = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            cells[i] = Integer.parseInt(parts[i]);
+            if (cells[i] < 0 || cells[i] >= CELLS) throw new IllegalArgumentException("Not a cell: " + parts[i]);
+        }
+        return cells;
+    }
+
+    public boolean isClassic() {
+        return classic;
+    }
+
+    public boolean hasDiagonals() {
+        return diagonals;
+    }
+
+    public boolean hasWindoku() {
+        return windoku;
+    }
+
+    public int unitCount() {
+        return units.length;
+    }
+
+    /** Cells of unit {@code u}: the 27 classic units first, then diagonals, windows and cages. Do not modify. */
+    public int[] unit(int u) {
+        return units[u];
+    }
+
+    /** Indices of the units containing {@code cell}. Do not modify. */
+    public int[] unitsOf(int cell) {
+        return unitsOf[cell];
+    }
+
+    /** Cells that may not repeat {@code cell}'s digit, in ascending order. Do not modify. */
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    public int cageCount() {
+        return cages.length;
+    }
+
+    /** Cells of cage {@code k}. Do not modify. */
+    public int[] cage(int k) {
+        return cages[k];
+    }
+
+    public int cageSum(int k) {
+        return cageSums[k];
+    }
+
+    /** Unit index of cage {@code k}. */
+    public int cageUnit(int k) {
+        return firstCageUnit + k;
+    }
+
+    /** The cage containing {@code cell}, or -1. */
+    public int cageOf(int cell) {
+        return cageOf[cell];
+    }
+
+    /** {@link #EVEN}, {@link #ODD} or 0. */
+    public int parity(int cell) {
+        return parity[cell];
+    }
+
+    /** Digits a cell may hold before looking at other cells, as a 9-bit mask. */
+    public int allowed(int cell) {
+        return allowed[cell];
+    }
+
+    /**
+     * True if {@code digit} can go in {@code cell} of a row-major grid: it
+     * fits the cell's parity, repeats no peer, and leaves the cell's cage
+     * able to reach its sum.
+     */
+    public boolean isValidMove(int[] grid, int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        if ((allowed[cell] & bit) == 0) return false;
+        for (int peer : peers[cell]) {
+            if (grid[peer] == digit) return false;
+        }
+        int k = cageOf[cell];
+        return k < 0 || isCageReachable(grid, k, cell, digit);
+    }
+
+    /**
+     * True if the filled cells of cage {@code k} can still add up to its sum:
+     * a full cage must hit it exactly, a partial one must leave a sum that
+     * distinct unused digits can make up.
+     */
+    public boolean isCageReachable(int[] grid, int k) {
+        return isCageReachable(grid, k, -1, 0);
+    }
+
+    /** As above, with {@code digit} placed in {@code cell} (ignored when cell is -1). */
+    private boolean isCageReachable(int[] grid, int k, int cell, int digit) {
+        int used = 0, sum = 0, empty = 0;
+        for (int other : cages[k]) {
+            int v = other == cell ? digit : grid[other];
+            if (v == 0) empty++;
+            else {
+                used |= 1 << (v - 1);
+                sum += v;
+            }
+        }
+        return empty == 0 ? sum == cageSums[k] : cageDigits(empty, cageSums[k] - sum, used) != 0;
+    }
+
+    /** True if a full grid satisfies every rule. */
+    public boolean isSolution(int[] grid) {
+        for (int[] unit : units) {
+            int seen = 0;
+            for (int cell : unit) {
+                int v = grid[cell];
+                if (v < 1 || v > 9 || (seen & (1 << (v - 1))) != 0) return false;
+                seen |= 1 << (v - 1);
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if ((allowed[cell] & (1 << (grid[cell] - 1))) == 0) return false;
+        }
+        for (int k = 0; k < cages.length; k++) {
+            int sum = 0;
+            for (int cell : cages[k]) sum += grid[cell];
+            if (sum != cageSums[k]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Digits that can appear among {@code count} more cells of a cage still
+     * needing {@code sum}, given the digits {@code used} so far, as a mask.
+     * 0 if the cage cannot be completed.
+     */
+    static int cageDigits(int count, int sum, int used) {
+        if (count <= 0 || sum <= 0 || sum > 45 || count > 9) return 0;
+        int digits = 0;
+        for (int combo : COMBOS[count * 46 + sum]) {
+            if ((combo & used) == 0) digits |= combo;
+        }
+        return digits;
+    }
+
+    private static int minSum(int count) {
+        return count * (count + 1) / 2;
+    }
+
+    private static int maxSum(int count) {
+        return count * (19 - count) / 2;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (diagonals) sb.append("diagonal;");
+        if (windoku) sb.append("windoku;");
+        for (int k = 0; k < cages.length; k++) {
+            sb.append("cage=").append(cageSums[k]).append(':');
+            appendCells(sb, cages[k]);
+            sb.append(';');
+        }
+        for (int mark : new int[] {EVEN, ODD}) {
+            int start = sb.length();
+            for (int cell = 0; cell < CELLS; cell++) {
+                if (parity[cell] == mark) sb.append(sb.length() == start ? "" : ".").append(cell);
+            }
+            if (sb.length() > start) {
+                sb.insert(start, mark == EVEN ? "even=" : "odd=").append(';');
+            }
+        }
+        if (sb.length() > 0) sb.setLength(sb.length() - 1);
+        return sb.toString();
+    }
+
+    private static void appendCells(StringBuilder sb, int[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) sb.append('.');
+            sb.append(cells[i]);
+        }
+    }
+}
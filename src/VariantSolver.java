@@ -0,0 +1,241 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Backtracking solver for 9x9 puzzles under any {@link VariantRules}. A
+ * cell's candidates are its parity mask minus the digits used in each of
+ * its units, narrowed for a caged cell to the digits that still appear in
+ * some way of completing the cage's sum; the search branches on the cell
+ * with the fewest candidates. Classic puzzles are better served by
+ * {@link BitmaskSolver}.
+ *
+ * Like {@link GridSolver}, searches can be capped with a node limit so
+ * uniqueness checks on sparse variant grids give up instead of running
+ * long. An instance is not thread-safe.
+ */
+public class VariantSolver implements SolverEngine {
+    private static final int SIZE = 9;
+    private static final int CELLS = Puzzle.CELLS;
+
+    private final VariantRules rules;
+
+    // Search state
+    private final int[] cells = new int[CELLS];
+    private final int[] unitUsed;
+    private final int[] cageLeft;
+    private final int[] cageEmpty;
+    private final int[] empties = new int[CELLS];
+    private final int[] digitOrder = new int[CELLS * SIZE];
+    private int emptyCount;
+
+    private RandomGenerator random;
+    private long nodeLimit = Long.MAX_VALUE;
+    private boolean aborted;
+    private long nodes;
+    private long backtracks;
+    private int solutionLimit;
+    private int solutionCount;
+
+    public VariantSolver(VariantRules rules) {
+        this.rules = rules;
+        unitUsed = new int[rules.unitCount()];
+        cageLeft = new int[rules.cageCount()];
+        cageEmpty = new int[rules.cageCount()];
+    }
+
+    public VariantRules getRules() {
+        return rules;
+    }
+
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /** Caps the nodes a single solve or count may visit; see {@link #wasAborted()}. */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /** True if the last search stopped because it hit the node limit. */
+    public boolean wasAborted() {
+        return aborted;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /** Dead ends hit by the most recent search. */
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    @Override
+    public boolean solve(int[] grid) {
+        if (!load(grid)) return false;
+        if (!run(1) || aborted) return false;
+        System.arraycopy(cells, 0, grid, 0, CELLS);
+        return true;
+    }
+
+    /**
+     * Counts solutions up to {@code limit}. If the node limit is hit first the
+     * search gives up and reports {@code limit}, so callers checking
+     * uniqueness treat an undecided grid as not unique.
+     */
+    @Override
+    public int countSolutions(int[] grid, int limit) {
+        if (!load(grid)) return 0;
+        run(limit);
+        return aborted ? limit : solutionCount;
+    }
+
+    private boolean load(int[] grid) {
+        if (grid.length != CELLS) {
+            throw new IllegalArgumentException("Expected " + CELLS + " cells, got " + grid.length);
+        }
+        Arrays.fill(unitUsed, 0);
+        for (int k = 0; k < cageLeft.length; k++) {
+            cageLeft[k] = rules.cageSum(k);
+            cageEmpty[k] = rules.cage(k).length;
+        }
+        emptyCount = 0;
+        for (int i = 0; i < CELLS; i++) {
+            int v = grid[i];
+            cells[i] = v;
+            if (v == 0) {
+                empties[emptyCount++] = i;
+                continue;
+            }
+            if (v < 0 || v > SIZE) return false;
+            int bit = 1 << (v - 1);
+            if ((candidatesIgnoringCage(i) & bit) == 0) return false;
+            place(i, v, bit);
+        }
+        // Every cage must still be completable from the givens
+        for (int k = 0; k < cageLeft.length; k++) {
+            if (cageEmpty[k] == 0 ? cageLeft[k] != 0
+                    : VariantRules.cageDigits(cageEmpty[k], cageLeft[k], unitUsed[rules.cageUnit(k)]) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean run(int limit) {
+        nodes = 0;
+        backtracks = 0;
+        aborted = false;
+        solutionLimit = limit;
+        solutionCount = 0;
+        SolveEvent event = Metrics.beginSolve();
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        boolean stopped = search(0);
+        if (Metrics.ENABLED) Metrics.solveFinished(start, nodes, backtracks);
+        Metrics.commitSolve(event, "variant", CELLS, nodes, solutionCount);
+        return stopped;
+    }
+
+    private int candidatesIgnoringCage(int cell) {
+        int used = 0;
+        for (int u : rules.unitsOf(cell)) {
+            used |= unitUsed[u];
+        }
+        return rules.allowed(cell) & ~used;
+    }
+
+    private int candidates(int cell) {
+        int mask = candidatesIgnoringCage(cell);
+        int k = rules.cageOf(cell);
+        if (k >= 0 && mask != 0) {
+            mask &= VariantRules.cageDigits(cageEmpty[k], cageLeft[k], unitUsed[rules.cageUnit(k)]);
+        }
+        return mask;
+    }
+
+    private void place(int cell, int value, int bit) {
+        for (int u : rules.unitsOf(cell)) {
+            unitUsed[u] |= bit;
+        }
+        int k = rules.cageOf(cell);
+        if (k >= 0) {
+            cageLeft[k] -= value;
+            cageEmpty[k]--;
+        }
+    }
+
+    private void unplace(int cell, int value, int bit) {
+        for (int u : rules.unitsOf(cell)) {
+            unitUsed[u] ^= bit;
+        }
+        int k = rules.cageOf(cell);
+        if (k >= 0) {
+            cageLeft[k] += value;
+            cageEmpty[k]++;
+        }
+    }
+
+    private boolean search(int depth) {
+        if (++nodes > nodeLimit) {
+            aborted = true;
+            return true; // unwind
+        }
+        if (depth == emptyCount) {
+            // In counting mode keep going until the limit is reached
+            return ++solutionCount >= solutionLimit;
+        }
+
+        // Pick the empty cell with the fewest candidates and move it to 'depth'
+        int best = depth;
+        int bestCount = SIZE + 1;
+        int bestMask = 0;
+        for (int i = depth; i < emptyCount; i++) {
+            int mask = candidates(empties[i]);
+            int count = Integer.bitCount(mask);
+            if (count < bestCount) {
+                bestCount = count;
+                bestMask = mask;
+                best = i;
+                if (count <= 1) break;
+            }
+        }
+        if (bestCount == 0) {
+            backtracks++;
+            return false;
+        }
+
+        int cell = empties[best];
+        empties[best] = empties[depth];
+        empties[depth] = cell;
+
+        int mask = bestMask;
+        int base = depth * SIZE;
+        int n = 0;
+        while (mask != 0) {
+            int bit = mask & -mask;
+            mask ^= bit;
+            digitOrder[base + n++] = bit;
+        }
+        if (random != null) {
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = digitOrder[base + i];
+                digitOrder[base + i] = digitOrder[base + j];
+                digitOrder[base + j] = t;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            int bit = digitOrder[base + i];
+            int value = Integer.numberOfTrailingZeros(bit) + 1;
+            cells[cell] = value;
+            place(cell, value, bit);
+            if (search(depth + 1)) return true;
+            unplace(cell, value, bit);
+        }
+        cells[cell] = 0;
+        backtracks++;
+        return false;
+    }
+}